@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection;
+
+import com.bakdata.deduplication.similarity.CommonSimilarityMeasures;
+import com.bakdata.deduplication.similarity.SimilarityContext;
+import com.bakdata.deduplication.similarity.SimilarityException;
+import com.bakdata.deduplication.similarity.SimilarityMeasure;
+
+import java.time.chrono.ChronoLocalDate;
+
+/**
+ * Integral distance between two keys, which needs to be a metric for metric indexes such as the
+ * {@link com.bakdata.deduplication.candidate_selection.online.OnlineBkTreeCandidateSelection}: the distance is
+ * symmetric, zero only for equal keys, and satisfies the triangle inequality.
+ *
+ * @param <K> the type of the key
+ */
+@FunctionalInterface
+public interface Distance<K> {
+    int getDistance(K left, K right);
+
+    static <K extends CharSequence> Distance<K> levenshtein() {
+        return (left, right) -> CommonSimilarityMeasures.BitParallelLevenshtein.distance(left, right, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The absolute difference of the dates in days.
+     */
+    static <K extends ChronoLocalDate> Distance<K> days() {
+        return (left, right) -> (int) Math.min(Integer.MAX_VALUE, Math.abs(left.toEpochDay() - right.toEpochDay()));
+    }
+
+    /**
+     * Turns the similarity into a distance of {@code round((1 - similarity) * scale)}, where unknown similarities
+     * result in the maximum distance.<br>
+     * The result is only a metric if {@code 1 - similarity} is a metric, which is not the case for most normalized
+     * similarities such as the normalized Levenshtein similarity.<br>
+     * Exceptions that the measure records in its context are rethrown as a {@link SimilarityException}.
+     */
+    static <K> Distance<K> of(SimilarityMeasure<? super K> measure, int scale) {
+        return (left, right) -> {
+            final SimilarityContext context = new SimilarityContext();
+            final float similarity = measure.getSimilarity(left, right, context);
+            if (context.hasExceptions()) {
+                final SimilarityException exception = new SimilarityException(
+                        "Could not compute distance between " + left + " and " + right, context.getExceptions().get(0));
+                context.getExceptions().stream().skip(1).forEach(exception::addSuppressed);
+                throw exception;
+            }
+            return SimilarityMeasure.isUnknown(similarity) ? Integer.MAX_VALUE : Math.round((1 - similarity) * scale);
+        };
+    }
+}
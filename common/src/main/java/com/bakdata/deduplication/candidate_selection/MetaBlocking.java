@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prunes the candidates of several candidate selections by the co-occurrence of the records in the blocks.<br>
+ * The candidates of each block, e.g., of each pass or selection, form a blocking graph, in which each edge is weighted
+ * by the blocks that its records share. An edge is kept if its weight is at least the mean weight of the edges of its
+ * records, such that pairs that only share a single block with many other records are dropped before classification.
+ * <p>
+ * As in the online candidate selections, records are compared by identity, such that equal but distinct records are
+ * separate nodes of the blocking graph.
+ * </p>
+ */
+@Value
+@Builder
+public class MetaBlocking {
+    @Builder.Default
+    WeightingScheme weightingScheme = WeightingScheme.CBS;
+    /**
+     * If true, an edge needs to reach the mean weight of both records; otherwise, it needs to reach the mean weight of
+     * either record.
+     */
+    @Builder.Default
+    boolean reciprocal = false;
+
+    /**
+     * Returns the candidates of all blocks with sufficient weight, where the same pair of records is returned once in
+     * the order and orientation of its first occurrence.
+     */
+    public <T> List<Candidate<T>> prune(List<? extends List<Candidate<T>>> blocks) {
+        final Map<Edge<T>, int[]> commonBlocks = new LinkedHashMap<>();
+        final Map<T, NodeStats> nodes = new IdentityHashMap<>();
+        for (int block = 0; block < blocks.size(); block++) {
+            for (Candidate<T> candidate : blocks.get(block)) {
+                // the number of common blocks and the last block that contained the pair
+                final int[] count = commonBlocks.computeIfAbsent(new Edge<>(candidate), edge -> new int[]{0, -1});
+                if (count[1] != block) {
+                    count[0]++;
+                    count[1] = block;
+                }
+                nodes.computeIfAbsent(candidate.getNewRecord(), record -> new NodeStats()).addBlock(block);
+                nodes.computeIfAbsent(candidate.getOldRecord(), record -> new NodeStats()).addBlock(block);
+            }
+        }
+
+        final Map<Edge<T>, Float> weights = new HashMap<>();
+        commonBlocks.forEach((edge, count) -> {
+            final NodeStats left = nodes.get(edge.getCandidate().getNewRecord());
+            final NodeStats right = nodes.get(edge.getCandidate().getOldRecord());
+            final float weight = weightingScheme.getWeight(count[0], left.numBlocks, right.numBlocks);
+            weights.put(edge, weight);
+            left.addEdge(weight);
+            right.addEdge(weight);
+        });
+
+        final List<Candidate<T>> candidates = new ArrayList<>();
+        for (Edge<T> edge : commonBlocks.keySet()) {
+            final float weight = weights.get(edge);
+            final boolean leftPassed = weight >= nodes.get(edge.getCandidate().getNewRecord()).getMeanWeight();
+            final boolean rightPassed = weight >= nodes.get(edge.getCandidate().getOldRecord()).getMeanWeight();
+            if (reciprocal ? leftPassed && rightPassed : leftPassed || rightPassed) {
+                candidates.add(edge.getCandidate());
+            }
+        }
+        return candidates;
+    }
+
+    public enum WeightingScheme {
+        /**
+         * Common blocks scheme: the number of blocks that contain the pair.
+         */
+        CBS {
+            @Override
+            float getWeight(int commonBlocks, int leftBlocks, int rightBlocks) {
+                return commonBlocks;
+            }
+        },
+        /**
+         * Jaccard coefficient of the blocks of the two records.
+         */
+        JACCARD {
+            @Override
+            float getWeight(int commonBlocks, int leftBlocks, int rightBlocks) {
+                return (float) commonBlocks / (leftBlocks + rightBlocks - commonBlocks);
+            }
+        };
+
+        abstract float getWeight(int commonBlocks, int leftBlocks, int rightBlocks);
+    }
+
+    private static class NodeStats {
+        private int numBlocks;
+        private int lastBlock = -1;
+        private int numEdges;
+        private double weightSum;
+
+        void addBlock(int block) {
+            // the blocks are visited in order, so each block is counted once
+            if (block != lastBlock) {
+                lastBlock = block;
+                numBlocks++;
+            }
+        }
+
+        void addEdge(float weight) {
+            numEdges++;
+            weightSum += weight;
+        }
+
+        float getMeanWeight() {
+            return (float) (weightSum / numEdges);
+        }
+    }
+
+    /**
+     * Unordered pair of records compared by identity, such that a pair is counted once regardless of its orientation in
+     * the blocks.
+     */
+    @Value
+    private static class Edge<T> {
+        Candidate<T> candidate;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Edge)) {
+                return false;
+            }
+            final Candidate<?> other = ((Edge<?>) o).candidate;
+            return candidate.getNewRecord() == other.getNewRecord() && candidate.getOldRecord() == other.getOldRecord()
+                    || candidate.getNewRecord() == other.getOldRecord() && candidate.getOldRecord() == other.getNewRecord();
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(candidate.getNewRecord()) ^ System.identityHashCode(candidate.getOldRecord());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.offline;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.MetaBlocking;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the blocking graph from the candidates of several candidate selections and keeps only the edges that reach
+ * the mean weight of their records, see {@link MetaBlocking}.
+ *
+ * @param <T> the type of the record
+ */
+@Value
+@Builder
+public class OfflineMetaBlocking<T> implements OfflineCandidateSelection<T> {
+    @Singular
+    List<OfflineCandidateSelection<T>> selections;
+    @NonNull
+    @Builder.Default
+    MetaBlocking metaBlocking = MetaBlocking.builder().build();
+
+    @Override
+    public List<Candidate<T>> getCandidates(List<T> records) {
+        final List<List<Candidate<T>>> blocks = selections.stream()
+                .map(selection -> selection.getCandidates(records))
+                .collect(Collectors.toList());
+        return metaBlocking.prune(blocks);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.Distance;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes the records by a key in a BK-tree and returns all records whose key is within the given radius of the key of
+ * the new record.<br>
+ * Each child of a node holds the keys with the same distance to the key of the node. Because of the triangle
+ * inequality, a query with radius r only needs to descend into the children whose distance is within r of the
+ * distance between the query key and the key of the node. The results are exact for any {@link Distance} that is a
+ * metric, such as the Levenshtein distance of customer or phone numbers.
+ * <p>
+ * Removed records leave their node in the tree, since the node still routes to its children.
+ * </p>
+ *
+ * @param <T> the type of the record
+ * @param <K> the type of the key
+ */
+@Value
+@Builder
+public class OnlineBkTreeCandidateSelection<T, K> implements OnlineCandidateSelection<T> {
+    private static final int PARALLEL_THRESHOLD = 1024;
+    @NonNull
+    Function<T, K> keyExtractor;
+    @NonNull
+    Distance<? super K> distance;
+    @Builder.Default
+    int radius = 2;
+    @Getter(AccessLevel.NONE)
+    Tree<T, K> tree = new Tree<>();
+
+    @Override
+    public List<Candidate<T>> getCandidates(T newRecord) {
+        final K newKey = keyExtractor.apply(newRecord);
+        if (newKey == null) {
+            return List.of();
+        }
+        final List<Candidate<T>> candidates = getRecords(newKey, radius).stream()
+                .map(oldRecord -> new Candidate<>(newRecord, oldRecord))
+                .collect(Collectors.toList());
+        add(newKey, newRecord);
+        return candidates;
+    }
+
+    /**
+     * Returns all indexed records with a key within the given radius of the given key.
+     */
+    public List<T> getRecords(K key, int radius) {
+        final List<T> records = new ArrayList<>();
+        if (tree.root == null) {
+            return records;
+        }
+        final Deque<Node<T, K>> pending = new ArrayDeque<>();
+        pending.push(tree.root);
+        while (!pending.isEmpty()) {
+            final Node<T, K> node = pending.pop();
+            final int nodeDistance = distance.getDistance(key, node.key);
+            if (nodeDistance <= radius) {
+                records.addAll(node.records);
+            }
+            final int from = (int) Math.max(0, (long) nodeDistance - radius);
+            final int to = (int) Math.min(Integer.MAX_VALUE, (long) nodeDistance + radius);
+            int child = node.indexOf(from);
+            if (child < 0) {
+                child = -child - 1;
+            }
+            for (; child < node.size && node.distances[child] <= to; child++) {
+                pending.push(node.children[child]);
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void add(T record) {
+        final K key = keyExtractor.apply(record);
+        if (key != null) {
+            add(key, record);
+        }
+    }
+
+    private void add(K key, T record) {
+        if (tree.root == null) {
+            tree.root = new Node<>(key);
+            tree.root.records.add(record);
+            return;
+        }
+        Node<T, K> node = tree.root;
+        while (true) {
+            final int keyDistance = distance.getDistance(key, node.key);
+            if (keyDistance == 0) {
+                node.records.add(record);
+                return;
+            }
+            final int child = node.indexOf(keyDistance);
+            if (child < 0) {
+                final Node<T, K> leaf = new Node<>(key);
+                leaf.records.add(record);
+                node.insert(-child - 1, keyDistance, leaf);
+                return;
+            }
+            node = node.children[child];
+        }
+    }
+
+    @Override
+    public void remove(T record) {
+        final K key = keyExtractor.apply(record);
+        Node<T, K> node = key == null ? null : tree.root;
+        while (node != null) {
+            final int keyDistance = distance.getDistance(key, node.key);
+            if (keyDistance == 0) {
+                // records may be equal but still be distinct entries in the index
+                node.records.removeIf(indexedRecord -> indexedRecord == record);
+                return;
+            }
+            final int child = node.indexOf(keyDistance);
+            node = child < 0 ? null : node.children[child];
+        }
+    }
+
+    @Override
+    public boolean supportsRemoval() {
+        return true;
+    }
+
+    /**
+     * Builds the tree top-down if it is still empty: the records are grouped by key, and the keys of each subtree are
+     * partitioned by their distance to the key of the subtree root. Otherwise, the records are inserted one by one.
+     */
+    @Override
+    public void bulkLoad(Iterable<T> records) {
+        final Map<K, List<T>> recordsByKey = new LinkedHashMap<>();
+        for (T record : records) {
+            final K key = keyExtractor.apply(record);
+            if (key != null) {
+                recordsByKey.computeIfAbsent(key, k -> new LinkedList<>()).add(record);
+            }
+        }
+        if (tree.root != null) {
+            recordsByKey.forEach((key, keyRecords) -> keyRecords.forEach(record -> add(key, record)));
+            return;
+        }
+        if (!recordsByKey.isEmpty()) {
+            tree.root = build(new ArrayList<>(recordsByKey.entrySet()));
+        }
+    }
+
+    /**
+     * Builds the subtrees iteratively, since the tree may be as deep as the number of distinct keys for degenerate
+     * distances.
+     */
+    private Node<T, K> build(List<Map.Entry<K, List<T>>> entries) {
+        final Node<T, K> root = createNode(entries.get(0));
+        final Deque<Subtree<T, K>> pending = new ArrayDeque<>();
+        pending.push(new Subtree<>(root, entries));
+        while (!pending.isEmpty()) {
+            final Subtree<T, K> subtree = pending.pop();
+            final Node<T, K> node = subtree.node;
+            final List<Map.Entry<K, List<T>>> remaining = subtree.entries.subList(1, subtree.entries.size());
+            final int[] distances = (remaining.size() > PARALLEL_THRESHOLD ? remaining.parallelStream() : remaining.stream())
+                    .mapToInt(entry -> distance.getDistance(entry.getKey(), node.key))
+                    .toArray();
+            final Map<Integer, List<Map.Entry<K, List<T>>>> partitions = new TreeMap<>();
+            for (int i = 0; i < distances.length; i++) {
+                // keys with distance 0 are equal to the root key
+                if (distances[i] == 0) {
+                    node.records.addAll(remaining.get(i).getValue());
+                } else {
+                    partitions.computeIfAbsent(distances[i], d -> new ArrayList<>()).add(remaining.get(i));
+                }
+            }
+            partitions.forEach((childDistance, childEntries) -> {
+                final Node<T, K> child = createNode(childEntries.get(0));
+                node.insert(node.size, childDistance, child);
+                pending.push(new Subtree<>(child, childEntries));
+            });
+        }
+        return root;
+    }
+
+    private static <T, K> Node<T, K> createNode(Map.Entry<K, List<T>> entry) {
+        final Node<T, K> node = new Node<>(entry.getKey());
+        node.records.addAll(entry.getValue());
+        return node;
+    }
+
+    @Value
+    private static class Subtree<T, K> {
+        Node<T, K> node;
+        List<Map.Entry<K, List<T>>> entries;
+    }
+
+    private static class Tree<T, K> {
+        private Node<T, K> root;
+    }
+
+    private static class Node<T, K> {
+        private final K key;
+        private final List<T> records = new LinkedList<>();
+        private int[] distances = new int[0];
+        @SuppressWarnings("unchecked")
+        private Node<T, K>[] children = new Node[0];
+        private int size;
+
+        Node(K key) {
+            this.key = key;
+        }
+
+        int indexOf(int distance) {
+            return Arrays.binarySearch(distances, 0, size, distance);
+        }
+
+        void insert(int index, int distance, Node<T, K> child) {
+            if (size == distances.length) {
+                final int capacity = Math.max(2, size * 2);
+                distances = Arrays.copyOf(distances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(distances, index, distances, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            distances[index] = distance;
+            children[index] = child;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Indexes the records by a normalized key in a trie and returns all records whose key is within the maximum edit
+ * distance of the key of the new record.<br>
+ * The lookup simulates a Levenshtein automaton of the new key on the trie: each trie node extends the dynamic
+ * programming row of its parent by one character, and a subtree is skipped as soon as no entry of the row is within
+ * the maximum distance. Only the diagonal band of width {@code 2 * maxDistance + 1} of each row is computed.
+ * <p>
+ * In contrast to the {@link OnlineSortedNeighborhoodMethod}, a typo in the first characters of the key does not move
+ * the record out of the window, e.g., "Schmidt" and "Chmidt" are found with a maximum distance of 1.
+ * </p>
+ *
+ * @param <T> the type of the record
+ */
+@Value
+public class OnlineFuzzyKeyCandidateSelection<T> implements OnlineCandidateSelection<T> {
+    @NonNull
+    Function<T, String> keyExtractor;
+    int maxDistance;
+    @Getter(AccessLevel.NONE)
+    Node<T> root = new Node<>();
+
+    @Builder
+    private OnlineFuzzyKeyCandidateSelection(@NonNull Function<T, String> keyExtractor, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("The maximum distance must not be negative, but got " + maxDistance);
+        }
+        this.keyExtractor = keyExtractor;
+        this.maxDistance = maxDistance;
+    }
+
+    @Override
+    public List<Candidate<T>> getCandidates(T newRecord) {
+        final String newKey = keyExtractor.apply(newRecord);
+        if (newKey == null) {
+            return List.of();
+        }
+        final List<Candidate<T>> candidates = getRecords(newKey).stream()
+                .map(oldRecord -> new Candidate<>(newRecord, oldRecord))
+                .collect(Collectors.toList());
+        root.getOrCreate(newKey).add(newRecord);
+        return candidates;
+    }
+
+    /**
+     * Returns all indexed records with a key within the maximum edit distance of the given key.
+     */
+    public List<T> getRecords(String key) {
+        final int[][] rows = new int[key.length() + maxDistance + 2][key.length() + 1];
+        for (int column = 0; column <= key.length(); column++) {
+            rows[0][column] = Math.min(column, maxDistance + 1);
+        }
+        final List<T> records = new ArrayList<>();
+        collect(root, key, 0, rows, records);
+        return records;
+    }
+
+    private void collect(Node<T> node, String key, int depth, int[][] rows, List<T> records) {
+        // the last column is only part of the band if the depth is close to the key length
+        if (node.records != null && Math.abs(depth - key.length()) <= maxDistance
+                && rows[depth][key.length()] <= maxDistance) {
+            records.addAll(node.records);
+        }
+        for (int child = 0; child < node.size; child++) {
+            if (computeRow(key, depth + 1, node.chars[child], rows[depth], rows[depth + 1])) {
+                collect(node.children[child], key, depth + 1, rows, records);
+            }
+        }
+    }
+
+    /**
+     * Computes the band of the row for the given depth, where entries above the maximum distance are capped.
+     *
+     * @return true if any entry of the row is within the maximum distance
+     */
+    private boolean computeRow(String key, int depth, char nodeChar, int[] previous, int[] current) {
+        final int capped = maxDistance + 1;
+        final int from = Math.max(1, depth - maxDistance);
+        final int to = Math.min(key.length(), depth + maxDistance);
+        current[from - 1] = from == 1 ? Math.min(depth, capped) : capped;
+        boolean reachable = current[from - 1] <= maxDistance;
+        for (int column = from; column <= to; column++) {
+            final int substitution = previous[column - 1] + (key.charAt(column - 1) == nodeChar ? 0 : 1);
+            final int value = Math.min(Math.min(previous[column] + 1, current[column - 1] + 1), substitution);
+            current[column] = Math.min(value, capped);
+            reachable |= value <= maxDistance;
+        }
+        if (to < key.length()) {
+            // the next row reads one entry beyond the band
+            current[to + 1] = capped;
+        }
+        return reachable;
+    }
+
+    @Override
+    public void add(T record) {
+        final String key = keyExtractor.apply(record);
+        if (key != null) {
+            root.getOrCreate(key).add(record);
+        }
+    }
+
+    @Override
+    public void remove(T record) {
+        final String key = keyExtractor.apply(record);
+        if (key != null) {
+            root.remove(key, 0, record);
+        }
+    }
+
+    @Override
+    public boolean supportsRemoval() {
+        return true;
+    }
+
+    /**
+     * Inserts the records in the order of their keys, such that new trie nodes are always appended to their parent.
+     */
+    @Override
+    public void bulkLoad(Iterable<T> records) {
+        final List<Map.Entry<String, T>> sortedRecords = StreamSupport.stream(records.spliterator(), true)
+                .<Map.Entry<String, T>>map(record -> new AbstractMap.SimpleEntry<>(keyExtractor.apply(record), record))
+                .filter(entry -> entry.getKey() != null)
+                .sorted(Map.Entry.comparingByKey())
+                .collect(Collectors.toList());
+        for (Map.Entry<String, T> entry : sortedRecords) {
+            root.getOrCreate(entry.getKey()).add(entry.getValue());
+        }
+    }
+
+    private static class Node<T> {
+        private char[] chars = new char[0];
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = new Node[0];
+        private int size;
+        private List<T> records;
+
+        List<T> getOrCreate(String key) {
+            Node<T> node = this;
+            for (int depth = 0; depth < key.length(); depth++) {
+                node = node.getOrCreateChild(key.charAt(depth));
+            }
+            if (node.records == null) {
+                node.records = new LinkedList<>();
+            }
+            return node.records;
+        }
+
+        private Node<T> getOrCreateChild(char c) {
+            final int index = Arrays.binarySearch(chars, 0, size, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            final int insertion = -index - 1;
+            if (size == chars.length) {
+                final int capacity = Math.max(2, size * 2);
+                chars = Arrays.copyOf(chars, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(chars, insertion, chars, insertion + 1, size - insertion);
+            System.arraycopy(children, insertion, children, insertion + 1, size - insertion);
+            final Node<T> child = new Node<>();
+            chars[insertion] = c;
+            children[insertion] = child;
+            size++;
+            return child;
+        }
+
+        /**
+         * Removes the record and all nodes that do not lead to any record anymore.
+         *
+         * @return true if this node is empty afterwards
+         */
+        boolean remove(String key, int depth, T record) {
+            if (depth == key.length()) {
+                // records may be equal but still be distinct entries in the index
+                if (records != null && records.removeIf(indexedRecord -> indexedRecord == record) && records.isEmpty()) {
+                    records = null;
+                }
+            } else {
+                final int index = Arrays.binarySearch(chars, 0, size, key.charAt(depth));
+                if (index >= 0 && children[index].remove(key, depth + 1, record)) {
+                    System.arraycopy(chars, index + 1, chars, index, size - index - 1);
+                    System.arraycopy(children, index + 1, children, index, size - index - 1);
+                    children[--size] = null;
+                }
+            }
+            return records == null && size == 0;
+        }
+    }
+
+    @SuppressWarnings({"WeakerAccess", "unused"})
+    public static class OnlineFuzzyKeyCandidateSelectionBuilder<T> {
+        private int maxDistance = 1;
+    }
+}
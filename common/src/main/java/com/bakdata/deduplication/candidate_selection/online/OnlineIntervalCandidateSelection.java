@@ -0,0 +1,313 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.time.chrono.ChronoLocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Indexes the records by a numeric key and returns all records whose key differs by at most {@link #getMaxDifference()}
+ * from the key of the new record, e.g., all persons born within two days.<br>
+ * Optionally, the candidates also need to have the same secondary key. The records of each secondary key are kept in a
+ * sorted primitive array, so that a lookup is a binary search followed by a scan of the matching range. New records are
+ * first inserted into a small sorted buffer, which is merged into the array once it holds about {@code sqrt(n)}
+ * records.
+ *
+ * @param <T> the type of the record
+ */
+@Value
+public class OnlineIntervalCandidateSelection<T> implements OnlineCandidateSelection<T> {
+    private static final Object NO_SECONDARY_KEY = new Object();
+    @NonNull
+    ToLongFunction<T> keyExtractor;
+    /**
+     * Records without key are neither indexed nor compared.
+     */
+    @NonNull
+    Predicate<T> hasKey;
+    long maxDifference;
+    /**
+     * Optional extractor of a key that the candidates need to share with the new record, where records with a
+     * {@code null} key are neither indexed nor compared.
+     */
+    Function<T, ?> secondaryKeyExtractor;
+    @Getter(AccessLevel.NONE)
+    Map<Object, Partition<T>> partitions = new HashMap<>();
+
+    @Builder
+    private OnlineIntervalCandidateSelection(@NonNull ToLongFunction<T> keyExtractor, @NonNull Predicate<T> hasKey,
+                                             long maxDifference, Function<T, ?> secondaryKeyExtractor) {
+        if (maxDifference < 0) {
+            throw new IllegalArgumentException("The maximum difference must not be negative, but got " + maxDifference);
+        }
+        this.keyExtractor = keyExtractor;
+        this.hasKey = hasKey;
+        this.maxDifference = maxDifference;
+        this.secondaryKeyExtractor = secondaryKeyExtractor;
+    }
+
+    @Override
+    public List<Candidate<T>> getCandidates(T newRecord) {
+        final Object secondaryKey = getSecondaryKey(newRecord);
+        if (secondaryKey == null || !hasKey.test(newRecord)) {
+            return List.of();
+        }
+        final long key = keyExtractor.applyAsLong(newRecord);
+        final Partition<T> partition = partitions.computeIfAbsent(secondaryKey, k -> new Partition<>());
+        final List<T> oldRecords = new ArrayList<>();
+        partition.collect(subtractSaturated(key, maxDifference), addSaturated(key, maxDifference), oldRecords);
+        partition.add(key, newRecord);
+        return oldRecords.stream()
+                .map(oldRecord -> new Candidate<>(newRecord, oldRecord))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns all indexed records with the given secondary key whose key is within the given range.
+     */
+    public List<T> getRecords(Object secondaryKey, long fromKey, long toKey) {
+        final List<T> records = new ArrayList<>();
+        final Partition<T> partition = partitions.get(secondaryKeyExtractor == null ? NO_SECONDARY_KEY : secondaryKey);
+        if (partition != null) {
+            partition.collect(fromKey, toKey, records);
+        }
+        return records;
+    }
+
+    private Object getSecondaryKey(T record) {
+        return secondaryKeyExtractor == null ? NO_SECONDARY_KEY : secondaryKeyExtractor.apply(record);
+    }
+
+    private static long subtractSaturated(long key, long difference) {
+        final long result = key - difference;
+        return result > key ? Long.MIN_VALUE : result;
+    }
+
+    private static long addSaturated(long key, long difference) {
+        final long result = key + difference;
+        return result < key ? Long.MAX_VALUE : result;
+    }
+
+    @Override
+    public void add(T record) {
+        final Object secondaryKey = getSecondaryKey(record);
+        if (secondaryKey != null && hasKey.test(record)) {
+            partitions.computeIfAbsent(secondaryKey, k -> new Partition<>())
+                    .add(keyExtractor.applyAsLong(record), record);
+        }
+    }
+
+    @Override
+    public void remove(T record) {
+        final Object secondaryKey = getSecondaryKey(record);
+        if (secondaryKey == null || !hasKey.test(record)) {
+            return;
+        }
+        final Partition<T> partition = partitions.get(secondaryKey);
+        if (partition != null) {
+            partition.remove(keyExtractor.applyAsLong(record), record);
+        }
+    }
+
+    @Override
+    public boolean supportsRemoval() {
+        return true;
+    }
+
+    /**
+     * Sorts all records by their key in one go and merges them into the sorted arrays.
+     */
+    @Override
+    public void bulkLoad(Iterable<T> records) {
+        final Map<Object, List<T>> recordsBySecondaryKey = StreamSupport.stream(records.spliterator(), false)
+                .filter(record -> getSecondaryKey(record) != null && hasKey.test(record))
+                .collect(Collectors.groupingBy(this::getSecondaryKey));
+        recordsBySecondaryKey.forEach((secondaryKey, partitionRecords) -> {
+            final List<T> sortedRecords = partitionRecords.parallelStream()
+                    .sorted(Comparator.comparingLong(keyExtractor))
+                    .collect(Collectors.toList());
+            final long[] keys = sortedRecords.stream().mapToLong(keyExtractor).toArray();
+            partitions.computeIfAbsent(secondaryKey, k -> new Partition<>())
+                    .merge(keys, sortedRecords.toArray(), keys.length);
+        });
+    }
+
+    private static class Partition<T> {
+        private static final int MIN_BUFFER_SIZE = 64;
+        private long[] keys = new long[0];
+        private Object[] records = new Object[0];
+        private int size;
+        private int numRemoved;
+        private long[] bufferKeys = new long[MIN_BUFFER_SIZE];
+        private Object[] bufferRecords = new Object[MIN_BUFFER_SIZE];
+        private int bufferSize;
+
+        /**
+         * Returns the first index in the sorted range whose key is at least the given key.
+         */
+        private static int lowerBound(long[] keys, int size, long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the first index in the sorted range whose key is greater than the given key.
+         */
+        private static int upperBound(long[] keys, int size, long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle] <= key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        @SuppressWarnings("unchecked")
+        void collect(long fromKey, long toKey, List<T> result) {
+            for (int i = lowerBound(keys, size, fromKey); i < size && keys[i] <= toKey; i++) {
+                // removed records are null until the next merge
+                if (records[i] != null) {
+                    result.add((T) records[i]);
+                }
+            }
+            for (int i = lowerBound(bufferKeys, bufferSize, fromKey); i < bufferSize && bufferKeys[i] <= toKey; i++) {
+                result.add((T) bufferRecords[i]);
+            }
+        }
+
+        void add(long key, T record) {
+            if (bufferSize == bufferKeys.length) {
+                merge(bufferKeys, bufferRecords, bufferSize);
+                final int bufferCapacity = Math.max(MIN_BUFFER_SIZE, (int) Math.sqrt(size));
+                bufferKeys = new long[bufferCapacity];
+                bufferRecords = new Object[bufferCapacity];
+                bufferSize = 0;
+            }
+            // records with equal keys keep their insertion order
+            final int insertion = upperBound(bufferKeys, bufferSize, key);
+            System.arraycopy(bufferKeys, insertion, bufferKeys, insertion + 1, bufferSize - insertion);
+            System.arraycopy(bufferRecords, insertion, bufferRecords, insertion + 1, bufferSize - insertion);
+            bufferKeys[insertion] = key;
+            bufferRecords[insertion] = record;
+            bufferSize++;
+        }
+
+        void remove(long key, T record) {
+            for (int i = lowerBound(bufferKeys, bufferSize, key); i < bufferSize && bufferKeys[i] == key; i++) {
+                // records may be equal but still be distinct entries in the index
+                if (bufferRecords[i] == record) {
+                    System.arraycopy(bufferKeys, i + 1, bufferKeys, i, bufferSize - i - 1);
+                    System.arraycopy(bufferRecords, i + 1, bufferRecords, i, bufferSize - i - 1);
+                    bufferRecords[--bufferSize] = null;
+                    return;
+                }
+            }
+            for (int i = lowerBound(keys, size, key); i < size && keys[i] == key; i++) {
+                if (records[i] == record) {
+                    records[i] = null;
+                    numRemoved++;
+                    if (numRemoved > size / 2) {
+                        merge(new long[0], new Object[0], 0);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Merges the sorted records into the sorted arrays and drops all removed records.
+         */
+        void merge(long[] otherKeys, Object[] otherRecords, int otherSize) {
+            final int mergedCapacity = size - numRemoved + otherSize;
+            final long[] mergedKeys = new long[mergedCapacity];
+            final Object[] mergedRecords = new Object[mergedCapacity];
+            int mergedSize = 0;
+            int index = 0;
+            int otherIndex = 0;
+            while (index < size || otherIndex < otherSize) {
+                if (otherIndex == otherSize || index < size && keys[index] <= otherKeys[otherIndex]) {
+                    if (records[index] != null) {
+                        mergedKeys[mergedSize] = keys[index];
+                        mergedRecords[mergedSize++] = records[index];
+                    }
+                    index++;
+                } else {
+                    mergedKeys[mergedSize] = otherKeys[otherIndex];
+                    mergedRecords[mergedSize++] = Objects.requireNonNull(otherRecords[otherIndex]);
+                    otherIndex++;
+                }
+            }
+            keys = mergedKeys;
+            records = mergedRecords;
+            size = mergedSize;
+            numRemoved = 0;
+        }
+    }
+
+    @SuppressWarnings({"WeakerAccess", "unused"})
+    public static class OnlineIntervalCandidateSelectionBuilder<T> {
+        private Predicate<T> hasKey = record -> true;
+
+        /**
+         * Uses the epoch day of the extracted date as key, such that {@link #maxDifference(long)} is given in days.
+         */
+        public OnlineIntervalCandidateSelectionBuilder<T> dateKey(Function<T, ? extends ChronoLocalDate> dateExtractor) {
+            return keyExtractor(record -> dateExtractor.apply(record).toEpochDay())
+                    .hasKey(record -> dateExtractor.apply(record) != null);
+        }
+    }
+}
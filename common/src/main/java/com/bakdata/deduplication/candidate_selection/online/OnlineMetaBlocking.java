@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.MetaBlocking;
+import com.google.common.collect.Lists;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Combines the candidates of several candidate selections and keeps only the old records that share enough of the
+ * blocks with the new record, see {@link MetaBlocking}. Each {@link OnlineCandidateSelection#getCandidateBlocks(Object)
+ * candidate block} of a selection counts separately, such as each pass of an {@link OnlineSortedNeighborhoodMethod}.<br>
+ * Since each old record is only connected to the new record, a candidate is kept if its weight reaches the mean weight
+ * of all candidates of the new record. With {@link MetaBlocking.WeightingScheme#CBS}, an old record that is returned by
+ * only one of three blocks is thus dropped if most other candidates are returned by two or more blocks.
+ *
+ * @param <T> the type of the record
+ */
+@Value
+@Builder
+public class OnlineMetaBlocking<T> implements OnlineCandidateSelection<T> {
+    @Singular
+    List<OnlineCandidateSelection<T>> selections;
+    @Builder.Default
+    MetaBlocking.WeightingScheme weightingScheme = MetaBlocking.WeightingScheme.CBS;
+    // the old records only have a single edge, so their own mean weight is always reached
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    MetaBlocking metaBlocking = MetaBlocking.builder()
+            .weightingScheme(weightingScheme)
+            .reciprocal(true)
+            .build();
+
+    @Override
+    public List<Candidate<T>> getCandidates(T newRecord) {
+        final List<List<Candidate<T>>> blocks = selections.stream()
+                .flatMap(selection -> selection.getCandidateBlocks(newRecord).stream())
+                .collect(Collectors.toList());
+        return getMetaBlocking().prune(blocks);
+    }
+
+    @Override
+    public void add(T record) {
+        for (OnlineCandidateSelection<T> selection : selections) {
+            selection.add(record);
+        }
+    }
+
+    @Override
+    public void remove(T record) {
+        for (OnlineCandidateSelection<T> selection : selections) {
+            selection.remove(record);
+        }
+    }
+
+    @Override
+    public boolean supportsRemoval() {
+        return selections.stream().allMatch(OnlineCandidateSelection::supportsRemoval);
+    }
+
+    @Override
+    public void bulkLoad(Iterable<T> records) {
+        final List<T> recordList = Lists.newArrayList(records);
+        for (OnlineCandidateSelection<T> selection : selections) {
+            selection.bulkLoad(recordList);
+        }
+    }
+}
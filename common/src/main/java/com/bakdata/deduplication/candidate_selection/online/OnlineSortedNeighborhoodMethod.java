@@ -26,14 +26,17 @@ package com.bakdata.deduplication.candidate_selection.online;
 
 import com.bakdata.deduplication.candidate_selection.Candidate;
 import com.bakdata.deduplication.candidate_selection.SortingKey;
+import com.google.common.collect.Lists;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Singular;
 import lombok.Value;
 
+import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -47,7 +50,42 @@ public class OnlineSortedNeighborhoodMethod<T> implements OnlineCandidateSelecti
     int defaultWindowSize = 10;
 
     public List<Candidate<T>> getCandidates(T newRecord) {
-        return passes.stream().flatMap(pass -> pass.getCandidates(newRecord).stream()).distinct().collect(Collectors.toList());
+        return getCandidateBlocks(newRecord).stream().flatMap(List::stream).distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the candidates of each pass as a separate block.
+     */
+    @Override
+    public List<List<Candidate<T>>> getCandidateBlocks(T newRecord) {
+        return passes.stream().map(pass -> pass.getCandidates(newRecord)).collect(Collectors.toList());
+    }
+
+    @Override
+    public void add(T record) {
+        for (Pass<T> pass : passes) {
+            pass.add(record);
+        }
+    }
+
+    @Override
+    public void remove(T record) {
+        for (Pass<T> pass : passes) {
+            pass.remove(record);
+        }
+    }
+
+    @Override
+    public boolean supportsRemoval() {
+        return true;
+    }
+
+    @Override
+    public void bulkLoad(Iterable<T> records) {
+        final List<T> recordList = Lists.newArrayList(records);
+        for (Pass<T> pass : passes) {
+            pass.bulkLoad(recordList);
+        }
     }
 
     @Value
@@ -70,6 +108,48 @@ public class OnlineSortedNeighborhoodMethod<T> implements OnlineCandidateSelecti
             index.computeIfAbsent(newKey, key -> new LinkedList<>()).add(newRecord);
             return candidates;
         }
+
+        void add(T record) {
+            final Comparable<?> key = sortingKey.getKeyExtractor().apply(record);
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new LinkedList<>()).add(record);
+            }
+        }
+
+        void remove(T record) {
+            final Comparable<?> key = sortingKey.getKeyExtractor().apply(record);
+            if (key == null) {
+                return;
+            }
+            final List<T> records = index.get(key);
+            // records may be equal but still be distinct entries in the index
+            if (records != null && records.removeIf(indexedRecord -> indexedRecord == record) && records.isEmpty()) {
+                index.remove(key);
+            }
+        }
+
+        /**
+         * Sorts all records by their key in one go, such that each distinct key is inserted only once into the index.
+         * Records with the same key retain their order, so the index equals the index of successive insertions.
+         */
+        @SuppressWarnings("unchecked")
+        void bulkLoad(List<T> records) {
+            final List<Map.Entry<Comparable<Object>, T>> sortedRecords = records.parallelStream()
+                    .<Map.Entry<Comparable<Object>, T>>map(record -> new AbstractMap.SimpleEntry<>((Comparable<Object>) sortingKey.getKeyExtractor().apply(record), record))
+                    .filter(entry -> entry.getKey() != null)
+                    .sorted(Map.Entry.comparingByKey())
+                    .collect(Collectors.toList());
+
+            Comparable<Object> currentKey = null;
+            List<T> currentRecords = null;
+            for (Map.Entry<Comparable<Object>, T> entry : sortedRecords) {
+                if (currentKey == null || currentKey.compareTo(entry.getKey()) != 0) {
+                    currentKey = entry.getKey();
+                    currentRecords = index.computeIfAbsent(currentKey, key -> new LinkedList<>());
+                }
+                currentRecords.add(entry.getValue());
+            }
+        }
     }
 
     @SuppressWarnings({"WeakerAccess", "unused"})
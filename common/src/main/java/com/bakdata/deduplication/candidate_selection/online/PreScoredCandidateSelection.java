@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.similarity.SimilarityContext;
+import com.bakdata.deduplication.similarity.SimilarityException;
+import com.bakdata.deduplication.similarity.SimilarityMeasure;
+import com.google.common.collect.Ordering;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Wraps another candidate selection and ranks its candidates with a cheap pre-score, such as an exact comparison of a
+ * few fields or a length filter.<br>
+ * Only candidates with a pre-score of at least {@link #minPreScore} are returned, and at most the
+ * {@link #maxCandidates} best of them. Thus, the number of classifications per record has a hard upper bound, even if
+ * the wrapped selection lands in a dense region.
+ * <p>
+ * Candidates with an unknown pre-score only pass if no minimum pre-score is set and are ranked last. If the pre-score
+ * fails for any candidate, a {@link SimilarityException} is thrown after the new record has been indexed.
+ * </p>
+ *
+ * @param <T> the type of the record
+ */
+@Value
+@Builder
+public class PreScoredCandidateSelection<T> implements OnlineCandidateSelection<T> {
+    @NonNull
+    OnlineCandidateSelection<T> candidateSelection;
+    @NonNull
+    SimilarityMeasure<T> preScore;
+    @Builder.Default
+    int maxCandidates = Integer.MAX_VALUE;
+    @Builder.Default
+    float minPreScore = Float.NEGATIVE_INFINITY;
+
+    @Override
+    public List<Candidate<T>> getCandidates(T newRecord) {
+        final List<Candidate<T>> candidates = candidateSelection.getCandidates(newRecord);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        final SimilarityContext context = new SimilarityContext();
+        final List<ScoredCandidate<T>> passedCandidates = new ArrayList<>(candidates.size());
+        for (Candidate<T> candidate : candidates) {
+            final float score = getPreScore(candidate, context);
+            if (score >= minPreScore) {
+                passedCandidates.add(new ScoredCandidate<>(candidate, score));
+            }
+        }
+        if (context.hasExceptions()) {
+            throw createException(newRecord, context);
+        }
+
+        final List<ScoredCandidate<T>> bestCandidates = passedCandidates.size() <= maxCandidates ? passedCandidates :
+                Ordering.from(Comparator.<ScoredCandidate<T>>comparingDouble(ScoredCandidate::getScore))
+                        .greatestOf(passedCandidates, maxCandidates);
+        return bestCandidates.stream().map(ScoredCandidate::getCandidate).collect(Collectors.toList());
+    }
+
+    @Override
+    public void add(T record) {
+        candidateSelection.add(record);
+    }
+
+    @Override
+    public void remove(T record) {
+        candidateSelection.remove(record);
+    }
+
+    @Override
+    public boolean supportsRemoval() {
+        return candidateSelection.supportsRemoval();
+    }
+
+    @Override
+    public void bulkLoad(Iterable<T> records) {
+        candidateSelection.bulkLoad(records);
+    }
+
+    private float getPreScore(Candidate<T> candidate, SimilarityContext context) {
+        float score;
+        try {
+            score = preScore.getSimilarity(candidate.getNewRecord(), candidate.getOldRecord(), context);
+        } catch (Exception e) {
+            context.addException(e);
+            score = SimilarityMeasure.unknown();
+        }
+        return SimilarityMeasure.isUnknown(score) ? Float.NEGATIVE_INFINITY : score;
+    }
+
+    private SimilarityException createException(T newRecord, SimilarityContext context) {
+        final SimilarityException exception = new SimilarityException("Could not pre-score candidates of " + newRecord,
+                context.getExceptions().get(0));
+        context.getExceptions().stream().skip(1).forEach(exception::addSuppressed);
+        return exception;
+    }
+
+    @Value
+    private static class ScoredCandidate<T> {
+        Candidate<T> candidate;
+        float score;
+    }
+}
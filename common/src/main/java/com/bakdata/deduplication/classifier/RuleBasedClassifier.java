@@ -28,13 +28,20 @@ import com.bakdata.deduplication.candidate_selection.Candidate;
 import com.bakdata.deduplication.similarity.SimilarityContext;
 import com.bakdata.deduplication.similarity.SimilarityException;
 import com.bakdata.deduplication.similarity.SimilarityMeasure;
+import com.bakdata.deduplication.similarity.TransformationCache;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.Singular;
+import lombok.ToString;
 import lombok.Value;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Successively applies a list of rules to the record and returns the respective {@link Classification} with the following cases:
@@ -60,21 +67,55 @@ public class RuleBasedClassifier<T> implements Classifier<T> {
     List<Rule<T>> rules;
     @Builder.Default
     Classification defaultClassification = UNKNOWN;
+    /**
+     * Optional cache that is shared by all classifications, such that a record is transformed only once even if it is
+     * compared with many other records.
+     */
+    TransformationCache transformationCache;
+    /**
+     * Idle context of the current thread, which is cleared and reused for the next classification.
+     */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    ThreadLocal<SimilarityContext> contexts = new ThreadLocal<>();
 
     @Override
     public Classification classify(Candidate<T> candidate) {
-        SimilarityContext context = new SimilarityContext();
-        Classification classification = defaultClassification;
-        for (Rule<T> rule : rules) {
-            classification = evaluateRule(rule, candidate, context).orElse(classification);
-            if (!classification.getResult().isAmbiguous()) {
-                break;
+        final SimilarityContext context = acquireContext();
+        try {
+            Classification classification = defaultClassification;
+            for (Rule<T> rule : rules) {
+                classification = evaluateRule(rule, candidate, context, classification);
+                if (!classification.getResult().isAmbiguous()) {
+                    break;
+                }
             }
+            if (context.hasExceptions()) {
+                throw createException(candidate, context);
+            }
+            return classification.getResult().isAmbiguous() ? defaultClassification : classification;
+        } finally {
+            releaseContext(context);
         }
-        if (!context.getExceptions().isEmpty()) {
-            throw createException(candidate, context);
+    }
+
+    /**
+     * Takes the idle context of the current thread. A nested classification on the same thread, for example from
+     * within a similarity measure, gets a fresh context instead.
+     */
+    private SimilarityContext acquireContext() {
+        final SimilarityContext context = contexts.get();
+        if (context == null) {
+            return new SimilarityContext(transformationCache);
         }
-        return classification.getResult().isAmbiguous() ? defaultClassification : classification;
+        contexts.set(null);
+        return context;
+    }
+
+    private void releaseContext(SimilarityContext context) {
+        context.clear();
+        contexts.set(context);
     }
 
     private SimilarityException createException(Candidate<T> candidate, SimilarityContext context) {
@@ -84,25 +125,78 @@ public class RuleBasedClassifier<T> implements Classifier<T> {
         return fusionException;
     }
 
-    private Optional<Classification> evaluateRule(Rule<T> rule, Candidate<T> candidate, SimilarityContext context) {
-        return context.safeExecute(() -> rule.evaluate(candidate.getNewRecord(), candidate.getOldRecord(), context)).map(score -> {
-            if (Float.isNaN(score)) {
-                return UNKNOWN;
-            }
-            if (score <= -0f) {
-                return Classification.builder()
-                        .result(Classification.ClassificationResult.NON_DUPLICATE)
-                        .confidence(-score)
-                        .explanation(rule.getName())
-                        .build();
-            } else {
-                return Classification.builder()
-                        .result(Classification.ClassificationResult.DUPLICATE)
-                        .confidence(score)
-                        .explanation(rule.getName())
-                        .build();
+    /**
+     * Evaluates each rule for all old records at once, skipping the records that already have an unambiguous
+     * classification. If any similarity computation fails, the records are classified one by one, such that the
+     * exception is reported for the respective candidate as in {@link #classify(Candidate)}.
+     */
+    @Override
+    public List<Classification> classifyAll(T newRecord, List<T> oldRecords) {
+        final SimilarityContext context = acquireContext();
+        try {
+            final Classification[] classifications = new Classification[oldRecords.size()];
+            Arrays.fill(classifications, defaultClassification);
+            final float[] scores = new float[oldRecords.size()];
+            List<T> pendingRecords = oldRecords;
+            int[] pending = IntStream.range(0, oldRecords.size()).toArray();
+            for (int ruleIndex = 0; ruleIndex < rules.size() && pending.length > 0; ruleIndex++) {
+                final Rule<T> rule = rules.get(ruleIndex);
+                try {
+                    rule.evaluateAll(newRecord, pendingRecords, scores, context);
+                } catch (Exception e) {
+                    context.addException(e);
+                }
+                if (context.hasExceptions()) {
+                    return Classifier.super.classifyAll(newRecord, oldRecords);
+                }
+                int numPending = 0;
+                for (int position = 0; position < pending.length; position++) {
+                    final int index = pending[position];
+                    classifications[index] = toClassification(rule, scores[position]);
+                    if (classifications[index].getResult().isAmbiguous()) {
+                        pending[numPending++] = index;
+                    }
+                }
+                if (numPending < pending.length) {
+                    pending = Arrays.copyOf(pending, numPending);
+                    pendingRecords = Arrays.stream(pending).mapToObj(oldRecords::get).collect(Collectors.toList());
+                }
             }
-        });
+            return Arrays.stream(classifications)
+                    .map(classification -> classification.getResult().isAmbiguous() ? defaultClassification : classification)
+                    .collect(Collectors.toList());
+        } finally {
+            releaseContext(context);
+        }
+    }
+
+    private Classification evaluateRule(Rule<T> rule, Candidate<T> candidate, SimilarityContext context,
+                                        Classification previous) {
+        try {
+            return toClassification(rule, rule.evaluate(candidate.getNewRecord(), candidate.getOldRecord(), context));
+        } catch (Exception e) {
+            context.addException(e);
+            return previous;
+        }
+    }
+
+    private static Classification toClassification(Rule<?> rule, float score) {
+        if (Float.isNaN(score)) {
+            return UNKNOWN;
+        }
+        if (score <= -0f) {
+            return Classification.builder()
+                    .result(Classification.ClassificationResult.NON_DUPLICATE)
+                    .confidence(-score)
+                    .explanation(rule.getName())
+                    .build();
+        } else {
+            return Classification.builder()
+                    .result(Classification.ClassificationResult.DUPLICATE)
+                    .confidence(score)
+                    .explanation(rule.getName())
+                    .build();
+        }
     }
 
     @SuppressWarnings({"WeakerAccess", "UnusedReturnValue"})
@@ -143,6 +237,10 @@ public class RuleBasedClassifier<T> implements Classifier<T> {
             return measure.getSimilarity(left, right, context);
         }
 
+        void evaluateAll(T left, List<T> rights, float[] scores, SimilarityContext context) {
+            measure.getSimilarities(left, rights, scores, context);
+        }
+
         @SuppressWarnings("SameReturnValue")
         protected float doesNotApply() {
             return DOES_NOT_APPLY;
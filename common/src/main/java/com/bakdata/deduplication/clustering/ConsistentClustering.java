@@ -30,6 +30,7 @@ import lombok.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -88,6 +89,18 @@ public class ConsistentClustering<C extends Comparable<C>, T, I extends Comparab
         return clustering.getClusterIdGenerator();
     }
 
+    @Override
+    public Optional<Cluster<C, T>> getCluster(T record) {
+        final Cluster<C, T> keptCluster = getInternalClosure().getClusterIndex().get(idExtractor.apply(record));
+        return keptCluster != null ? Optional.of(keptCluster) : clustering.getCluster(record);
+    }
+
+    @Override
+    public void loadClusters(List<Cluster<C, T>> clusters) {
+        // the internal closure only tracks clusters that the wrapped clustering split later on
+        clustering.loadClusters(clusters);
+    }
+
     private boolean noRecordInIndex(List<Cluster<C, T>> clusters) {
         final Map<I, Cluster<C, T>> clusterIndex = getInternalClosure().getClusterIndex();
         return clusters.stream().flatMap(cluster -> cluster.getElements().stream())
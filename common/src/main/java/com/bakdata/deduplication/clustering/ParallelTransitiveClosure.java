@@ -0,0 +1,250 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.clustering;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.classifier.Classification;
+import com.bakdata.deduplication.classifier.ClassifiedCandidate;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Batch variant of {@link TransitiveClosure} that computes the connected components of all duplicate pairs at once.<br>
+ * The records are mapped to dense node ids and the pairs are kept in primitive edge arrays. The components are then
+ * found with a lock-free union-find that links all edges in parallel and compresses all paths in parallel.
+ * <p>
+ * Like {@link TransitiveClosure}, the clusters are kept in a cluster index between invocations, such that pairs of
+ * later invocations extend or merge the previous clusters. A cluster that is only extended keeps its id, merged
+ * clusters receive a new id.
+ * </p>
+ *
+ * @param <C> the type of the cluster id
+ * @param <T> the type of the record
+ * @param <I> the type of the record id
+ */
+@Value
+@Builder
+public class ParallelTransitiveClosure<C extends Comparable<C>, T, I extends Comparable<? super I>> implements Clustering<C, T> {
+    @NonNull
+    Function<T, I> idExtractor;
+    @NonNull
+    Function<Iterable<T>, C> clusterIdGenerator;
+    @NonNull
+    @Builder.Default
+    ConcurrentMap<I, Cluster<C, T>> clusterIndex = new ConcurrentHashMap<>();
+
+    private static int find(AtomicIntegerArray parents, int node) {
+        int current = node;
+        int parent = parents.get(current);
+        while (parent != current) {
+            final int grandParent = parents.get(parent);
+            // path halving; a failed update only means that another thread already shortened the path
+            parents.compareAndSet(current, parent, grandParent);
+            current = grandParent;
+            parent = parents.get(current);
+        }
+        return current;
+    }
+
+    private static void union(AtomicIntegerArray parents, int left, int right) {
+        while (true) {
+            final int leftRoot = find(parents, left);
+            final int rightRoot = find(parents, right);
+            if (leftRoot == rightRoot) {
+                return;
+            }
+            // always hook the larger root below the smaller root, such that concurrent unions cannot form cycles
+            final int largerRoot = Math.max(leftRoot, rightRoot);
+            if (parents.compareAndSet(largerRoot, largerRoot, Math.min(leftRoot, rightRoot))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public List<Cluster<C, T>> cluster(List<ClassifiedCandidate<T>> classified) {
+        final List<Candidate<T>> duplicates = classified.parallelStream()
+                .filter(classifiedCandidate -> classifiedCandidate.getClassification().getResult() == Classification.ClassificationResult.DUPLICATE)
+                .map(ClassifiedCandidate::getCandidate)
+                .collect(Collectors.toList());
+        return clusterDuplicates(duplicates);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Cluster<C, T>> clusterDuplicates(List<Candidate<T>> duplicates) {
+        final Object[] duplicateIds = new Object[2 * duplicates.size()];
+        IntStream.range(0, duplicates.size()).parallel().forEach(edge -> {
+            final Candidate<T> candidate = duplicates.get(edge);
+            duplicateIds[2 * edge] = idExtractor.apply(candidate.getNewRecord());
+            duplicateIds[2 * edge + 1] = idExtractor.apply(candidate.getOldRecord());
+        });
+        final List<Cluster<C, T>> previousClusters = clusterIndex.isEmpty() ? List.of() :
+                Arrays.stream(duplicateIds).parallel()
+                        .map(clusterIndex::get)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .collect(Collectors.toList());
+
+        // each edge consists of two consecutive endpoints; members of previous clusters are linked to the first member
+        // of their cluster and come first, such that the previous clusters keep the order of their elements
+        final int numPreviousEndpoints = 2 * previousClusters.stream().mapToInt(Cluster::size).sum();
+        final int numEndpoints = numPreviousEndpoints + duplicateIds.length;
+        final Object[] records = new Object[numEndpoints];
+        final Object[] ids = new Object[numEndpoints];
+        int endpoint = 0;
+        for (Cluster<C, T> previousCluster : previousClusters) {
+            for (T element : previousCluster.getElements()) {
+                records[endpoint++] = previousCluster.get(0);
+                records[endpoint++] = element;
+            }
+        }
+        IntStream.range(0, numPreviousEndpoints).parallel()
+                .forEach(previousEndpoint -> ids[previousEndpoint] = idExtractor.apply((T) records[previousEndpoint]));
+        System.arraycopy(duplicateIds, 0, ids, numPreviousEndpoints, duplicateIds.length);
+        IntStream.range(0, duplicates.size()).parallel().forEach(edge -> {
+            records[numPreviousEndpoints + 2 * edge] = duplicates.get(edge).getNewRecord();
+            records[numPreviousEndpoints + 2 * edge + 1] = duplicates.get(edge).getOldRecord();
+        });
+
+        final int[] nodes = getNodes(ids);
+        final int numNodes = numEndpoints == 0 ? 0 : Arrays.stream(nodes).max().getAsInt() + 1;
+        final Object[] nodeRecords = new Object[numNodes];
+        final Object[] nodeIds = new Object[numNodes];
+        IntStream.range(0, numEndpoints).parallel().forEach(nodeEndpoint -> {
+            // every endpoint of a node holds an equal record, so concurrent writes of the same node are harmless
+            nodeRecords[nodes[nodeEndpoint]] = records[nodeEndpoint];
+            nodeIds[nodes[nodeEndpoint]] = ids[nodeEndpoint];
+        });
+
+        final AtomicIntegerArray parents = new AtomicIntegerArray(numNodes);
+        for (int node = 0; node < numNodes; node++) {
+            parents.set(node, node);
+        }
+        IntStream.range(0, numEndpoints / 2).parallel().forEach(edge -> union(parents, nodes[2 * edge], nodes[2 * edge + 1]));
+        final int[] roots = new int[numNodes];
+        IntStream.range(0, numNodes).parallel().forEach(node -> roots[node] = find(parents, node));
+
+        return toClusters(roots, nodeRecords, nodeIds);
+    }
+
+    /**
+     * Assigns dense node ids to the endpoints, such that equal ids receive the same node. The nodes are numbered by the
+     * first occurrence of their id, which makes the assignment deterministic even though it runs in parallel.
+     */
+    private static int[] getNodes(Object[] ids) {
+        final int numEndpoints = ids.length;
+        final ConcurrentMap<Object, Integer> firstEndpoints = new ConcurrentHashMap<>(numEndpoints);
+        IntStream.range(0, numEndpoints).parallel().forEach(endpoint -> firstEndpoints.merge(ids[endpoint], endpoint, Math::min));
+
+        final int[] firstEndpointOf = new int[numEndpoints];
+        final int[] nodeNumbers = new int[numEndpoints];
+        IntStream.range(0, numEndpoints).parallel().forEach(endpoint -> {
+            firstEndpointOf[endpoint] = firstEndpoints.get(ids[endpoint]);
+            nodeNumbers[endpoint] = firstEndpointOf[endpoint] == endpoint ? 1 : 0;
+        });
+        Arrays.parallelPrefix(nodeNumbers, Integer::sum);
+        // reuse the array of first endpoints, as each endpoint only reads and writes its own slot
+        IntStream.range(0, numEndpoints).parallel()
+                .forEach(endpoint -> firstEndpointOf[endpoint] = nodeNumbers[firstEndpointOf[endpoint]] - 1);
+        return firstEndpointOf;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Cluster<C, T>> toClusters(int[] roots, Object[] records, Object[] ids) {
+        final int numNodes = roots.length;
+        final int[] componentSizes = new int[numNodes];
+        for (int root : roots) {
+            componentSizes[root]++;
+        }
+
+        // components are numbered by their first record, such that the output order is deterministic
+        final int[] componentOfRoot = new int[numNodes];
+        Arrays.fill(componentOfRoot, -1);
+        final List<List<T>> components = new ArrayList<>();
+        final List<Cluster<C, T>> previousClusters = new ArrayList<>();
+        final List<Boolean> mergedComponents = new ArrayList<>();
+        for (int node = 0; node < numNodes; node++) {
+            final int root = roots[node];
+            if (componentOfRoot[root] == -1) {
+                componentOfRoot[root] = components.size();
+                components.add(new ArrayList<>(componentSizes[root]));
+                previousClusters.add(null);
+                mergedComponents.add(false);
+            }
+            final int component = componentOfRoot[root];
+            components.get(component).add((T) records[node]);
+            final Cluster<C, T> previousCluster = clusterIndex.get(ids[node]);
+            if (previousCluster != null && previousCluster != previousClusters.get(component)) {
+                mergedComponents.set(component, previousClusters.get(component) != null);
+                previousClusters.set(component, previousCluster);
+            }
+        }
+
+        final List<Cluster<C, T>> clusters = new ArrayList<>(components.size());
+        for (int component = 0; component < components.size(); component++) {
+            final List<T> elements = components.get(component);
+            final Cluster<C, T> previousCluster = mergedComponents.get(component) ? null : previousClusters.get(component);
+            if (previousCluster == null) {
+                clusters.add(new Cluster<>(clusterIdGenerator.apply(elements), elements));
+            } else if (previousCluster.size() == elements.size()) {
+                // nothing to do; already known duplicates
+                // still return it so that downstream processes can work with it
+                clusters.add(previousCluster);
+            } else {
+                clusters.add(new Cluster<>(previousCluster.getId(), elements));
+            }
+        }
+        IntStream.range(0, numNodes).parallel()
+                .forEach(node -> clusterIndex.put((I) ids[node], clusters.get(componentOfRoot[roots[node]])));
+        return clusters;
+    }
+
+    @Override
+    public Optional<Cluster<C, T>> getCluster(T record) {
+        return Optional.ofNullable(clusterIndex.get(idExtractor.apply(record)));
+    }
+
+    @Override
+    public void loadClusters(List<Cluster<C, T>> clusters) {
+        clusters.parallelStream().forEach(cluster -> {
+            for (T record : cluster.getElements()) {
+                clusterIndex.put(idExtractor.apply(record), cluster);
+            }
+        });
+    }
+}
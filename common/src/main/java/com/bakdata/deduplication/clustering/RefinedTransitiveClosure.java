@@ -73,6 +73,23 @@ public class RefinedTransitiveClosure<C extends Comparable<C>, T, I extends Comp
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<Cluster<C, T>> getCluster(T record) {
+        return Optional.ofNullable(oldClusterIndex.get(idExtractor.apply(record)));
+    }
+
+    @Override
+    public void loadClusters(List<Cluster<C, T>> clusters) {
+        closure.loadClusters(clusters);
+        for (Cluster<C, T> cluster : clusters) {
+            // the closure extends its clusters in place, so the refined index needs its own copy
+            final Cluster<C, T> copy = new Cluster<>(cluster.getId(), new ArrayList<>(cluster.getElements()));
+            for (T element : cluster.getElements()) {
+                oldClusterIndex.put(idExtractor.apply(element), copy);
+            }
+        }
+    }
+
     private I getClusterId(Cluster<C, T> cluster) {
         return idExtractor.apply(cluster.get(0));
     }
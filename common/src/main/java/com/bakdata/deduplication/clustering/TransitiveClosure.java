@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -103,6 +104,20 @@ public class TransitiveClosure<C extends Comparable<C>, T, I extends Comparable<
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<Cluster<C, T>> getCluster(T record) {
+        return Optional.ofNullable(clusterIndex.get(idExtractor.apply(record)));
+    }
+
+    @Override
+    public void loadClusters(List<Cluster<C, T>> clusters) {
+        for (Cluster<C, T> cluster : clusters) {
+            for (T record : cluster.getElements()) {
+                clusterIndex.put(idExtractor.apply(record), cluster);
+            }
+        }
+    }
+
     public void removeCluster(Cluster<C, T> cluster) {
         final List<I> recordIds = cluster.getElements().stream()
                 .map(idExtractor::apply)
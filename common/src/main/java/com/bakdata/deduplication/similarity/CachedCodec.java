@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.Getter;
+import org.apache.commons.codec.EncoderException;
+import org.apache.commons.codec.StringEncoder;
+
+/**
+ * Applies a {@link StringEncoder} and caches its output by input string.<br>
+ * Phonetic codecs such as {@link org.apache.commons.codec.language.bm.BeiderMorseEncoder} are much slower than the
+ * similarity measures that compare their output. Since names are Zipf-distributed, a small cache already absorbs most
+ * of the encoding cost. The cache is bounded, thread-safe, and records hit statistics.
+ */
+public class CachedCodec implements SimilarityTransformation<String, String> {
+    @Getter
+    private final StringEncoder encoder;
+    private final Cache<String, String> cache;
+
+    public CachedCodec(StringEncoder encoder, long maxSize) {
+        this.encoder = encoder;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    @Override
+    public String transform(String value, SimilarityContext context) throws EncoderException {
+        if (value == null) {
+            return encoder.encode(null);
+        }
+        final String cached = cache.getIfPresent(value);
+        if (cached != null) {
+            return cached;
+        }
+        final String encoded = encoder.encode(value);
+        if (encoded != null) {
+            cache.put(value, encoded);
+        }
+        return encoded;
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public double getHitRate() {
+        return getStats().hitRate();
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
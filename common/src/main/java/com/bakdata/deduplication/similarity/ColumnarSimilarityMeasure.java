@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+/**
+ * A {@link SimilarityMeasure} on rows of {@link ColumnarStrings}, which additionally evaluates arbitrary batches of
+ * row pairs.<br>
+ * Implementations compare the rows directly on the primitive column arrays.
+ */
+public interface ColumnarSimilarityMeasure extends SimilarityMeasure<ColumnarStrings.Row> {
+    /**
+     * Computes the similarity of two non-null rows.
+     */
+    float getSimilarity(ColumnarStrings left, int leftRow, ColumnarStrings right, int rightRow);
+
+    @Override
+    default float getSimilarity(ColumnarStrings.Row left, ColumnarStrings.Row right, SimilarityContext context) {
+        if (left == null || right == null || left.getColumn().isNull(left.getIndex()) ||
+                right.getColumn().isNull(right.getIndex())) {
+            return context.getSimilarityForNull();
+        }
+        return getSimilarity(left.getColumn(), left.getIndex(), right.getColumn(), right.getIndex());
+    }
+
+    /**
+     * Computes the similarities of the pairs {@code (leftRows[i], rightRows[i])}.
+     */
+    default void getSimilarities(ColumnarStrings left, int[] leftRows, ColumnarStrings right, int[] rightRows,
+                                 float[] similarities, SimilarityContext context) {
+        for (int i = 0; i < leftRows.length; i++) {
+            similarities[i] = left.isNull(leftRows[i]) || right.isNull(rightRows[i]) ? context.getSimilarityForNull() :
+                    getSimilarity(left, leftRows[i], right, rightRows[i]);
+        }
+    }
+}
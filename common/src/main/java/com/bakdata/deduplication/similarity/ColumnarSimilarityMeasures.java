@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * {@link ColumnarSimilarityMeasure}s for short string fields stored in {@link ColumnarStrings}.<br>
+ * The kernels run on the primitive column arrays. Equal ranges are skipped with {@link Arrays#mismatch}, which the JVM
+ * compiles to vectorized instructions, and the remaining loops are simple enough to be unrolled by the JIT compiler.
+ */
+@SuppressWarnings("WeakerAccess")
+@UtilityClass
+public class ColumnarSimilarityMeasures {
+    public static ColumnarSimilarityMeasure equality() {
+        return (left, leftRow, right, rightRow) -> {
+            final int length = left.getLength(leftRow);
+            if (length != right.getLength(rightRow)) {
+                return 0;
+            }
+            final int leftOffset = left.getOffset(leftRow);
+            final int rightOffset = right.getOffset(rightRow);
+            return Arrays.equals(left.getChars(), leftOffset, leftOffset + length,
+                    right.getChars(), rightOffset, rightOffset + length) ? 1 : 0;
+        };
+    }
+
+    /**
+     * Counts the positions with different chars, where the surplus chars of the longer string count as different, and
+     * normalizes the count by the length of the longer string.
+     */
+    public static ColumnarSimilarityMeasure hamming() {
+        return (left, leftRow, right, rightRow) -> {
+            final int leftLength = left.getLength(leftRow);
+            final int rightLength = right.getLength(rightRow);
+            final int minLength = Math.min(leftLength, rightLength);
+            final int maxLength = Math.max(leftLength, rightLength);
+            final char[] leftChars = left.getChars();
+            final char[] rightChars = right.getChars();
+            final int leftOffset = left.getOffset(leftRow);
+            final int rightOffset = right.getOffset(rightRow);
+            int mismatches = maxLength - minLength;
+            int position = 0;
+            while (position < minLength) {
+                final int mismatch = Arrays.mismatch(leftChars, leftOffset + position, leftOffset + minLength,
+                        rightChars, rightOffset + position, rightOffset + minLength);
+                if (mismatch < 0) {
+                    break;
+                }
+                mismatches++;
+                position += mismatch + 1;
+            }
+            return 1f - (float) mismatches / maxLength;
+        };
+    }
+
+    /**
+     * Computes the Jaccard coefficient of the distinct q-grams of the strings.
+     */
+    public static ColumnarSimilarityMeasure qGramJaccard(int q) {
+        return (left, leftRow, right, rightRow) -> {
+            final ColumnarStrings.QGrams leftQGrams = left.getQGrams(q);
+            final ColumnarStrings.QGrams rightQGrams = right.getQGrams(q);
+            final int[] leftHashes = leftQGrams.getHashes();
+            final int[] rightHashes = rightQGrams.getHashes();
+            int leftIndex = leftQGrams.getOffsets()[leftRow];
+            int rightIndex = rightQGrams.getOffsets()[rightRow];
+            final int leftEnd = leftQGrams.getOffsets()[leftRow + 1];
+            final int rightEnd = rightQGrams.getOffsets()[rightRow + 1];
+            final int size = leftEnd - leftIndex + rightEnd - rightIndex;
+            int intersection = 0;
+            while (leftIndex < leftEnd && rightIndex < rightEnd) {
+                if (leftHashes[leftIndex] < rightHashes[rightIndex]) {
+                    leftIndex++;
+                } else if (leftHashes[leftIndex] > rightHashes[rightIndex]) {
+                    rightIndex++;
+                } else {
+                    intersection++;
+                    leftIndex++;
+                    rightIndex++;
+                }
+            }
+            return (float) intersection / (size - intersection);
+        };
+    }
+
+    /**
+     * Same as {@link CommonSimilarityMeasures#levenshtein()}, which shares the kernel
+     * {@link CommonSimilarityMeasures.Levensthein#distance(char[], int, int, char[], int, int, int, int[], int[])}.
+     */
+    public static ColumnarSimilarityMeasure levenshtein() {
+        return new Levenshtein(0);
+    }
+
+    @Value
+    private static class Levenshtein implements ColumnarSimilarityMeasure {
+        float threshold;
+
+        @Override
+        public float getSimilarity(ColumnarStrings left, int leftRow, ColumnarStrings right, int rightRow) {
+            final int leftLength = left.getLength(leftRow);
+            final int rightLength = right.getLength(rightRow);
+            final int maxLen = Math.max(leftLength, rightLength);
+            final int maxDiff = (int) (maxLen * (1 - threshold));
+            final int[][] rows = CommonSimilarityMeasures.Levensthein.getRows(Math.min(leftLength, rightLength) + 1);
+            final int distance = CommonSimilarityMeasures.Levensthein.distance(
+                    left.getChars(), left.getOffset(leftRow), leftLength,
+                    right.getChars(), right.getOffset(rightRow), rightLength, maxDiff, rows[0], rows[1]);
+            if (distance == -1) {
+                return 0;
+            }
+            return 1f - (float) distance / maxLen;
+        }
+
+        @Override
+        public SimilarityMeasure<ColumnarStrings.Row> cutoff(float threshold) {
+            if (threshold < this.threshold) {
+                return this;
+            }
+            return new Levenshtein(threshold);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.Value;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores many strings column-wise in primitive arrays, such that {@link ColumnarSimilarityMeasure}s can compare them
+ * without dereferencing individual string objects.<br>
+ * The chars of all rows are stored back to back, and an offsets array marks the start of each row. Null values are
+ * represented by a negative length.
+ */
+public class ColumnarStrings {
+    private final char[] chars;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final Map<Integer, QGrams> qGrams = new ConcurrentHashMap<>();
+
+    private ColumnarStrings(char[] chars, int[] offsets, int[] lengths) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    public static ColumnarStrings of(List<? extends CharSequence> values) {
+        final int[] offsets = new int[values.size()];
+        final int[] lengths = new int[values.size()];
+        int totalLength = 0;
+        for (int row = 0; row < values.size(); row++) {
+            final CharSequence value = values.get(row);
+            offsets[row] = totalLength;
+            lengths[row] = value == null ? -1 : value.length();
+            totalLength += Math.max(0, lengths[row]);
+        }
+        final char[] chars = new char[totalLength];
+        for (int row = 0; row < values.size(); row++) {
+            final CharSequence value = values.get(row);
+            for (int i = 0, offset = offsets[row]; i < lengths[row]; i++) {
+                chars[offset + i] = value.charAt(i);
+            }
+        }
+        return new ColumnarStrings(chars, offsets, lengths);
+    }
+
+    public int size() {
+        return lengths.length;
+    }
+
+    char[] getChars() {
+        return chars;
+    }
+
+    int getOffset(int row) {
+        return offsets[row];
+    }
+
+    /**
+     * Returns the length of the string in the given row or -1 if it is null.
+     */
+    public int getLength(int row) {
+        return lengths[row];
+    }
+
+    public boolean isNull(int row) {
+        return lengths[row] < 0;
+    }
+
+    public String getString(int row) {
+        return isNull(row) ? null : new String(chars, getOffset(row), lengths[row]);
+    }
+
+    public Row getRow(int row) {
+        return new Row(this, row);
+    }
+
+    /**
+     * Returns a view of all rows, which can be passed to
+     * {@link SimilarityMeasure#getSimilarities(Object, List, float[], SimilarityContext)}.
+     */
+    public List<Row> getRows() {
+        return new AbstractList<>() {
+            @Override
+            public Row get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return ColumnarStrings.this.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the sorted, distinct q-gram hashes of all rows, which are computed once per q.
+     */
+    QGrams getQGrams(int q) {
+        return qGrams.computeIfAbsent(q, this::computeQGrams);
+    }
+
+    private QGrams computeQGrams(int q) {
+        final int[] offsets = new int[size() + 1];
+        final int[][] rowHashes = new int[size()][];
+        for (int row = 0; row < size(); row++) {
+            rowHashes[row] = isNull(row) ? new int[0] : TokenSketch.ofNgrams(getString(row), q).getHashes();
+            offsets[row + 1] = offsets[row] + rowHashes[row].length;
+        }
+        final int[] hashes = new int[offsets[size()]];
+        for (int row = 0; row < size(); row++) {
+            System.arraycopy(rowHashes[row], 0, hashes, offsets[row], rowHashes[row].length);
+        }
+        return new QGrams(hashes, offsets);
+    }
+
+    @Value
+    static class QGrams {
+        int[] hashes;
+        int[] offsets;
+    }
+
+    /**
+     * A reference to one row of a {@link ColumnarStrings}.
+     */
+    @Value
+    public static class Row {
+        ColumnarStrings column;
+        int index;
+
+        @Override
+        public String toString() {
+            return column.getString(index);
+        }
+    }
+}
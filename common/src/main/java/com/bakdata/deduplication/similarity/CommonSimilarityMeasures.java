@@ -34,9 +34,10 @@ import org.apache.commons.codec.language.RefinedSoundex;
 import org.apache.commons.codec.language.Soundex;
 import org.apache.commons.codec.language.bm.BeiderMorseEncoder;
 import org.apache.commons.text.similarity.JaroWinklerDistance;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.apache.commons.text.similarity.SimilarityScore;
 
+import java.time.chrono.ChronoLocalDate;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalUnit;
 import java.util.*;
@@ -53,6 +54,8 @@ import static com.bakdata.deduplication.similarity.SimilarityMeasure.unknown;
 public class CommonSimilarityMeasures {
 
     private static final Splitter WHITE_SPACE_SPLITTER = Splitter.on(Pattern.compile("\\s+"));
+    private static final BiFunction<List<Float>, List<Float>, Float> WEIGHTED_AVERAGE = (weightedSims, weights) ->
+            (float) (weightedSims.stream().mapToDouble(sim -> sim).sum() / weights.stream().mapToDouble(w -> w).sum());
 
     public static <T extends CharSequence> SimilarityTransformation<T, List<CharSequence>> bigram() {
         return ngram(2);
@@ -75,12 +78,48 @@ public class CommonSimilarityMeasures {
         };
     }
 
+    /**
+     * Same as {@link #jaccard()} on the distinct tokens of two {@link TokenSketch}es.
+     */
+    public static SimilarityMeasure<TokenSketch> sketchJaccard() {
+        return new SketchSetSimilarity(SetOverlap.JACCARD, 0);
+    }
+
+    /**
+     * Computes the Sørensen-Dice coefficient of the distinct tokens of two {@link TokenSketch}es.
+     */
+    public static SimilarityMeasure<TokenSketch> sketchDice() {
+        return new SketchSetSimilarity(SetOverlap.DICE, 0);
+    }
+
+    /**
+     * Computes the overlap coefficient of the distinct tokens of two {@link TokenSketch}es.
+     */
+    public static SimilarityMeasure<TokenSketch> sketchOverlap() {
+        return new SketchSetSimilarity(SetOverlap.OVERLAP, 0);
+    }
+
+    /**
+     * Same as {@link #cosine()} on the token counts of two {@link TokenSketch}es.
+     */
+    public static SimilarityMeasure<TokenSketch> sketchCosine() {
+        return new SketchCosine(0);
+    }
+
     public static <T extends CharSequence> SimilarityMeasure<T> levenshtein() {
         return new Levensthein<>(0);
     }
 
+    /**
+     * Same as {@link #levenshtein()} but uses a bit-parallel algorithm that is considerably faster for strings of up
+     * to 64 characters.
+     */
+    public static <T extends CharSequence> SimilarityMeasure<T> bitParallelLevenshtein() {
+        return new BitParallelLevenshtein<>(0);
+    }
+
     public static <T extends CharSequence> SimilarityMeasure<T> jaroWinkler() {
-        return new SimilarityScoreMeasure<>(new JaroWinklerDistance());
+        return new JaroWinkler<>(0);
     }
 
     public static <T, C extends Collection<? extends T>> SimilarityMeasure<C> mongeElkan(SimilarityMeasure<T> pairMeasure) {
@@ -111,6 +150,40 @@ public class CommonSimilarityMeasures {
     }
 
 
+    /**
+     * Same as {@link #cosine()} but weighs the tokens by their inverse document frequency in the given corpus.
+     */
+    public static <T, C extends Collection<? extends T>> SimilarityMeasure<C> tfIdfCosine(TfIdfCorpus<T> corpus) {
+        return corpus.cosine();
+    }
+
+    /**
+     * SoftTF-IDF, which matches each token with its most similar token if their similarity exceeds the threshold.
+     *
+     * @see TfIdfCorpus#softCosine(SimilarityMeasure, float)
+     */
+    public static <T, C extends Collection<? extends T>> SimilarityMeasure<C> softTfIdf(TfIdfCorpus<T> corpus,
+                                                                                      SimilarityMeasure<? super T> tokenMeasure,
+                                                                                      float threshold) {
+        return corpus.softCosine(tokenMeasure, threshold);
+    }
+
+    /**
+     * Same as {@link #mongeElkan(SimilarityMeasure)} on sketches of {@link #wordIdSketch()}, which caches the scores of
+     * the pair measure by token ids.
+     */
+    public static SimilarityMeasure<TokenSketch> idMongeElkan(SimilarityMeasure<? super String> pairMeasure) {
+        return TokenDictionary.global().mongeElkan(pairMeasure);
+    }
+
+    /**
+     * Same as {@link #mongeElkan(SimilarityMeasure)} on {@link TokenBag}s, which can be prepared once per record with
+     * {@link #tokenBag()}.
+     */
+    public static <T> SimilarityMeasure<TokenBag<T>> bagMongeElkan(SimilarityMeasure<? super T> pairMeasure) {
+        return new BagMongeElkan<>(pairMeasure, 0);
+    }
+
     public static <T, C extends Collection<? extends T>> SimilarityMeasure<C> mongeElkan(SimilarityMeasure<T> pairMeasure, int maxPositionDiff) {
         return new MongeElkan<>(pairMeasure, maxPositionDiff, 0);
     }
@@ -119,6 +192,36 @@ public class CommonSimilarityMeasures {
         return (left, right, context) -> 1 - measure.getSimilarity(left, right, context);
     }
 
+    /**
+     * Averages the best similarity of each left token with any right token, where each distinct left token is weighted
+     * by its count. The computation stops as soon as the weighted deficit of the processed tokens exceeds the budget
+     * that the cutoff leaves.
+     */
+    private static <T> float getMongeElkanSimilarity(TokenBag<? extends T> left, TokenBag<? extends T> right,
+                                                     SimilarityMeasure<? super T> pairMeasure, float cutoff,
+                                                     SimilarityContext context) {
+        final float cutoffBuffer = (1 - cutoff) * left.getSize();
+        float sum = 0;
+        int processed = 0;
+        for (int leftIndex = 0; leftIndex < left.getDistinctSize(); leftIndex++) {
+            if (cutoffBuffer + sum < processed) {
+                return 0;
+            }
+            final T leftToken = left.getToken(leftIndex);
+            float max = 0;
+            for (int rightIndex = 0; max < 1.0 && rightIndex < right.getDistinctSize(); rightIndex++) {
+                max = Math.max(max, pairMeasure.getSimilarity(leftToken, right.getToken(rightIndex), context));
+            }
+            if (Float.isNaN(max)) {
+                return max;
+            }
+            final int count = left.getCount(leftIndex);
+            sum += count * max;
+            processed += count;
+        }
+        return CutoffSimiliarityMeasure.cutoff(sum / left.getSize(), cutoff);
+    }
+
     @SuppressWarnings("unchecked")
     private static <T, C extends Collection<? extends T>> List<T> ensureList(C leftCollection) {
         return leftCollection instanceof List ? (List<T>) leftCollection : List.copyOf(leftCollection);
@@ -137,24 +240,20 @@ public class CommonSimilarityMeasures {
         if (measures.length == 0) {
             throw new IllegalArgumentException();
         }
-        return (left, right, context) -> {
-            if (left == null || right == null) {
-                return unknown();
-            }
-            float max = -1;
-            for (int i = 0; max < 1 && i < measures.length; i++) {
-                float similarity = measures[i].getSimilarity(left, right, context);
-                if (!Float.isNaN(similarity)) {
-                    max = Math.max(similarity, max);
-                }
-            }
-            return max == -1 ? Float.NaN : max;
-        };
+        return new Max<>(measures);
     }
 
+    /**
+     * Day differences of dates are computed on the epoch days, see {@link TemporalSimilarityMeasures#maxDayDiff(int)}.
+     */
     public static <T extends Temporal> SimilarityMeasure<T> maxDiff(int diff, TemporalUnit unit) {
-        return (left, right, context) ->
-                Math.max(0, 1 - (float) Math.abs(left.until(right, unit)) / diff);
+        return (left, right, context) -> {
+            if (unit == ChronoUnit.DAYS && left instanceof ChronoLocalDate && right instanceof ChronoLocalDate) {
+                return TemporalSimilarityMeasures.dayDiffSimilarity(((ChronoLocalDate) left).toEpochDay(),
+                        ((ChronoLocalDate) right).toEpochDay(), diff);
+            }
+            return Math.max(0, 1 - (float) Math.abs(left.until(right, unit)) / diff);
+        };
     }
 
     @SafeVarargs
@@ -162,19 +261,7 @@ public class CommonSimilarityMeasures {
         if (measures.length == 0) {
             throw new IllegalArgumentException();
         }
-        return (left, right, context) -> {
-            if (left == null || right == null) {
-                return unknown();
-            }
-            float min = 2;
-            for (int i = 0; min > 0 && i < measures.length; i++) {
-                float similarity = measures[i].getSimilarity(left, right, context);
-                if (!Float.isNaN(similarity)) {
-                    min = Math.min(similarity, min);
-                }
-            }
-            return min == 2 ? Float.NaN : min;
-        };
+        return new Min<>(measures);
     }
 
     public static <T extends CharSequence> SimilarityTransformation<T, List<CharSequence>> ngram(int n) {
@@ -183,6 +270,26 @@ public class CommonSimilarityMeasures {
                 .collect(Collectors.toList());
     }
 
+    public static <T extends CharSequence> SimilarityTransformation<T, TokenSketch> ngramSketch(int n) {
+        return (t, context) -> TokenSketch.ofNgrams(t, n);
+    }
+
+    public static <T extends CharSequence> SimilarityTransformation<T, TokenSketch> ngramIdSketch(int n) {
+        return (t, context) -> TokenDictionary.global().ngramSketchOf(t, n);
+    }
+
+    public static <T extends CharSequence> SimilarityTransformation<T, TokenSketch> wordSketch() {
+        return (t, context) -> TokenSketch.ofTokens(WHITE_SPACE_SPLITTER.split(t));
+    }
+
+    /**
+     * Same as {@link #wordSketch()} but uses the ids of the {@link TokenDictionary#global() global dictionary}, such
+     * that distinct words never collide.
+     */
+    public static <T extends CharSequence> SimilarityTransformation<T, TokenSketch> wordIdSketch() {
+        return (t, context) -> TokenDictionary.global().sketchOf(WHITE_SPACE_SPLITTER.split(t));
+    }
+
     public static SimilarityTransformation<String, String> soundex() {
         return codec(new Soundex());
     }
@@ -199,6 +306,15 @@ public class CommonSimilarityMeasures {
         return (s, context) -> encoder.encode(s);
     }
 
+    /**
+     * Applies the encoder and caches its output for at most {@code maxSize} distinct inputs, e.g.,
+     * {@code cachedCodec(new BeiderMorseEncoder(), 100_000)} for slow phonetic codecs. The cache belongs to the returned
+     * instance, so it should be created once and shared by all measures that use the codec.
+     */
+    public static CachedCodec cachedCodec(StringEncoder encoder, long maxSize) {
+        return new CachedCodec(encoder, maxSize);
+    }
+
     public static <T extends CharSequence> SimilarityTransformation<T, List<String>> words() {
         return (t, context) -> Lists.newArrayList(WHITE_SPACE_SPLITTER.split(t));
     }
@@ -207,6 +323,10 @@ public class CommonSimilarityMeasures {
         return (t, context) -> function.apply(t);
     }
 
+    public static <T, C extends Collection<? extends T>> SimilarityTransformation<C, TokenBag<T>> tokenBag() {
+        return (tokens, context) -> TokenBag.of(tokens);
+    }
+
     public static <T extends CharSequence> SimilarityTransformation<T, List<CharSequence>> trigram() {
         return ngram(3);
     }
@@ -216,8 +336,7 @@ public class CommonSimilarityMeasures {
     }
 
     public static <T> WeightedAggregation.WeightedAggregationBuilder<T> weightedAverage() {
-        return weightedAggregation((weightedSims, weights) ->
-                (float) (weightedSims.stream().mapToDouble(sim -> sim).sum() / weights.stream().mapToDouble(w -> w).sum()));
+        return weightedAggregation(WEIGHTED_AVERAGE);
     }
 
     static int getMaxLen(CharSequence left, CharSequence right) {
@@ -252,18 +371,139 @@ public class CommonSimilarityMeasures {
     }
 
     public static class Levensthein<T extends CharSequence> implements SimilarityMeasure<T> {
+        private static final ThreadLocal<int[][]> ROWS = ThreadLocal.withInitial(() -> new int[2][0]);
+        private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[0]);
         private final float threshold;
 
         public Levensthein(float threshold) {
             this.threshold = threshold;
         }
 
+        /**
+         * Computes the edit distance of the two strings if it does not exceed the given maximum distance.<br>
+         * The strings are copied into a reused char buffer and compared with
+         * {@link #distance(char[], int, int, char[], int, int, int, int[], int[])}, using the two given rows, which need
+         * to be longer than the shorter string.
+         *
+         * @return the edit distance or -1 if it exceeds the maximum distance
+         */
+        public static int distance(CharSequence left, CharSequence right, int maxDistance, int[] previousRow, int[] currentRow) {
+            if (left == null || right == null) {
+                throw new IllegalArgumentException("Strings must not be null");
+            }
+            final int leftLength = left.length();
+            final int rightLength = right.length();
+            if (Math.abs(leftLength - rightLength) > maxDistance) {
+                return -1;
+            }
+            char[] chars = CHARS.get();
+            if (chars.length < leftLength + rightLength) {
+                chars = new char[leftLength + rightLength];
+                CHARS.set(chars);
+            }
+            copyChars(left, chars, 0);
+            copyChars(right, chars, leftLength);
+            return distance(chars, 0, leftLength, chars, leftLength, rightLength, maxDistance, previousRow, currentRow);
+        }
+
+        /**
+         * Computes the edit distance of two char ranges if it does not exceed the given maximum distance.<br>
+         * The common prefix and suffix are skipped before the diagonal band of width {@code 2 * maxDistance + 1} of the
+         * remaining ranges is evaluated on the given rows, which need to be longer than the shorter range.
+         *
+         * @return the edit distance or -1 if it exceeds the maximum distance
+         */
+        public static int distance(char[] left, int leftFrom, int leftLength, char[] right, int rightFrom,
+                                   int rightLength, int maxDistance, int[] previousRow, int[] currentRow) {
+            if (Math.abs(leftLength - rightLength) > maxDistance) {
+                return -1;
+            }
+            final int minLength = Math.min(leftLength, rightLength);
+            int prefix = Arrays.mismatch(left, leftFrom, leftFrom + minLength, right, rightFrom, rightFrom + minLength);
+            if (prefix < 0) {
+                prefix = minLength;
+            }
+            int suffix = 0;
+            while (suffix < minLength - prefix &&
+                    left[leftFrom + leftLength - 1 - suffix] == right[rightFrom + rightLength - 1 - suffix]) {
+                suffix++;
+            }
+
+            // the shorter range is used for the rows
+            final boolean leftShorter = leftLength <= rightLength;
+            final char[] shorter = leftShorter ? left : right;
+            final char[] longer = leftShorter ? right : left;
+            final int shorterFrom = (leftShorter ? leftFrom : rightFrom) + prefix;
+            final int longerFrom = (leftShorter ? rightFrom : leftFrom) + prefix;
+            final int n = minLength - prefix - suffix;
+            final int m = Math.max(leftLength, rightLength) - prefix - suffix;
+            if (n == 0) {
+                return m;
+            }
+
+            int[] previous = previousRow;
+            int[] current = currentRow;
+            final int boundary = Math.min(n, maxDistance) + 1;
+            for (int i = 0; i < boundary; i++) {
+                previous[i] = i;
+            }
+            Arrays.fill(previous, boundary, n + 1, Integer.MAX_VALUE);
+            Arrays.fill(current, 0, n + 1, Integer.MAX_VALUE);
+            for (int j = 1; j <= m; j++) {
+                final char longerChar = longer[longerFrom + j - 1];
+                current[0] = j;
+                // cells outside of the band [j - maxDistance, j + maxDistance] cannot lead to a valid distance
+                final int min = Math.max(1, j - maxDistance);
+                final int max = j > Integer.MAX_VALUE - maxDistance ? n : Math.min(n, j + maxDistance);
+                if (min > max) {
+                    return -1;
+                }
+                if (min > 1) {
+                    current[min - 1] = Integer.MAX_VALUE;
+                }
+                for (int i = min; i <= max; i++) {
+                    if (shorter[shorterFrom + i - 1] == longerChar) {
+                        current[i] = previous[i - 1];
+                    } else {
+                        current[i] = 1 + Math.min(Math.min(current[i - 1], previous[i]), previous[i - 1]);
+                    }
+                }
+                final int[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            return previous[n] <= maxDistance ? previous[n] : -1;
+        }
+
+        private static void copyChars(CharSequence sequence, char[] chars, int offset) {
+            if (sequence instanceof String) {
+                ((String) sequence).getChars(0, sequence.length(), chars, offset);
+            } else {
+                for (int i = 0; i < sequence.length(); i++) {
+                    chars[offset + i] = sequence.charAt(i);
+                }
+            }
+        }
+
+        static int[][] getRows(int length) {
+            int[][] rows = ROWS.get();
+            if (rows[0].length < length) {
+                rows = new int[][]{new int[length], new int[length]};
+                ROWS.set(rows);
+            }
+            return rows;
+        }
+
         @Override
         public float getSimilarity(CharSequence left, CharSequence right, SimilarityContext context) {
             var maxLen = getMaxLen(left, right);
             var maxDiff = (int) (maxLen * (1 - threshold));
-            var measure = new DistanceSimilarityMeasure<T>(new LevenshteinDistance(maxDiff));
-            return measure.getSimilarity(left, right, context);
+            final int[][] rows = getRows(Math.min(left.length(), right.length()) + 1);
+            final int distance = distance(left, right, maxDiff, rows[0], rows[1]);
+            if (distance == -1) {
+                return 0;
+            }
+            return 1f - (float) distance / maxLen;
         }
 
         @Override
@@ -275,17 +515,329 @@ public class CommonSimilarityMeasures {
         }
     }
 
-    @Builder
+    /**
+     * Levenshtein similarity based on Myers' bit-vector algorithm, which computes one column of the edit distance matrix
+     * with a few word operations.<br>
+     * The shorter string needs to fit into a {@code long}; longer strings fall back to {@link Levensthein}.
+     */
+    public static class BitParallelLevenshtein<T extends CharSequence> implements SimilarityMeasure<T> {
+        private static final int MAX_PATTERN_LENGTH = Long.SIZE;
+        private static final ThreadLocal<long[]> PATTERN_MASKS = ThreadLocal.withInitial(() -> new long[256]);
+        private final float threshold;
+
+        public BitParallelLevenshtein(float threshold) {
+            this.threshold = threshold;
+        }
+
+        /**
+         * Computes the edit distance of the two strings if it does not exceed the given maximum distance.
+         *
+         * @return the edit distance or -1 if it exceeds the maximum distance
+         */
+        public static int distance(CharSequence left, CharSequence right, int maxDistance) {
+            if (left == null || right == null) {
+                throw new IllegalArgumentException("Strings must not be null");
+            }
+            // the shorter string is encoded as bit vectors
+            CharSequence pattern = left;
+            CharSequence text = right;
+            if (pattern.length() > text.length()) {
+                pattern = right;
+                text = left;
+            }
+            final int m = pattern.length();
+            if (text.length() - m > maxDistance) {
+                return -1;
+            }
+            if (m == 0) {
+                return text.length();
+            }
+            if (m > MAX_PATTERN_LENGTH) {
+                final int[][] rows = Levensthein.getRows(m + 1);
+                return Levensthein.distance(pattern, text, maxDistance, rows[0], rows[1]);
+            }
+
+            final long[] masks = PATTERN_MASKS.get();
+            boolean wideChars = false;
+            for (int i = 0; i < m; i++) {
+                final char c = pattern.charAt(i);
+                if (c < masks.length) {
+                    masks[c] |= 1L << i;
+                } else {
+                    wideChars = true;
+                }
+            }
+            try {
+                return distance(pattern, text, maxDistance, masks, wideChars);
+            } finally {
+                for (int i = 0; i < m; i++) {
+                    final char c = pattern.charAt(i);
+                    if (c < masks.length) {
+                        masks[c] = 0;
+                    }
+                }
+            }
+        }
+
+        private static int distance(CharSequence pattern, CharSequence text, int maxDistance, long[] masks, boolean wideChars) {
+            final int m = pattern.length();
+            final int n = text.length();
+            final long last = 1L << (m - 1);
+            // vertical deltas of the current column; all +1 in the first column
+            long positive = -1L;
+            long negative = 0;
+            int score = m;
+            for (int j = 0; j < n; j++) {
+                final char c = text.charAt(j);
+                final long equal = c < masks.length ? masks[c] : (wideChars ? getMask(pattern, c) : 0);
+                final long xv = equal | negative;
+                final long xh = (((equal & positive) + positive) ^ positive) | equal;
+                long horizontalPositive = negative | ~(xh | positive);
+                long horizontalNegative = positive & xh;
+                if ((horizontalPositive & last) != 0) {
+                    score++;
+                } else if ((horizontalNegative & last) != 0) {
+                    score--;
+                }
+                // each remaining character can decrease the distance by at most one
+                if (score - (n - j - 1) > maxDistance) {
+                    return -1;
+                }
+                // the first row increases by one in each column
+                horizontalPositive = (horizontalPositive << 1) | 1;
+                horizontalNegative <<= 1;
+                positive = horizontalNegative | ~(xv | horizontalPositive);
+                negative = horizontalPositive & xv;
+            }
+            return score <= maxDistance ? score : -1;
+        }
+
+        /**
+         * Encodes {@code left} only once as the pattern for all records.
+         */
+        @Override
+        public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+            if (left == null || left.length() == 0 || left.length() > MAX_PATTERN_LENGTH) {
+                SimilarityMeasure.super.getSimilarities(left, rights, similarities, context);
+                return;
+            }
+            final int m = left.length();
+            final long[] masks = PATTERN_MASKS.get();
+            boolean wideChars = false;
+            for (int i = 0; i < m; i++) {
+                final char c = left.charAt(i);
+                if (c < masks.length) {
+                    masks[c] |= 1L << i;
+                } else {
+                    wideChars = true;
+                }
+            }
+            try {
+                for (int i = 0; i < rights.size(); i++) {
+                    final T right = rights.get(i);
+                    if (right == null) {
+                        throw new IllegalArgumentException("Strings must not be null");
+                    }
+                    var maxLen = getMaxLen(left, right);
+                    var maxDiff = (int) (maxLen * (1 - threshold));
+                    // the distance is symmetric, so the pattern may also be the longer string
+                    final int distance = Math.abs(right.length() - m) > maxDiff ? -1 : distance(left, right, maxDiff, masks, wideChars);
+                    similarities[i] = distance == -1 ? 0 : 1f - (float) distance / maxLen;
+                }
+            } finally {
+                for (int i = 0; i < m; i++) {
+                    final char c = left.charAt(i);
+                    if (c < masks.length) {
+                        masks[c] = 0;
+                    }
+                }
+            }
+        }
+
+        private static long getMask(CharSequence pattern, char c) {
+            long mask = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) == c) {
+                    mask |= 1L << i;
+                }
+            }
+            return mask;
+        }
+
+        @Override
+        public float getSimilarity(CharSequence left, CharSequence right, SimilarityContext context) {
+            var maxLen = getMaxLen(left, right);
+            var maxDiff = (int) (maxLen * (1 - threshold));
+            final int distance = distance(left, right, maxDiff);
+            if (distance == -1) {
+                return 0;
+            }
+            return 1f - (float) distance / maxLen;
+        }
+
+        @Override
+        public SimilarityMeasure<T> cutoff(float threshold) {
+            if (threshold < this.threshold) {
+                return this;
+            }
+            return new BitParallelLevenshtein<>(threshold);
+        }
+    }
+
+    /**
+     * Computes the same similarity as {@link JaroWinklerDistance} on reused buffers.<br>
+     * With a cutoff, pairs are rejected as soon as an upper bound of the similarity, derived from the string lengths and
+     * the characters that can still be matched, falls below the threshold.
+     */
+    public static class JaroWinkler<T extends CharSequence> implements SimilarityMeasure<T> {
+        private static final double SCALING_FACTOR = 0.1;
+        private static final double BOOST_THRESHOLD = 0.7;
+        private static final ThreadLocal<boolean[][]> MATCH_FLAGS = ThreadLocal.withInitial(() -> new boolean[2][0]);
+        private final float threshold;
+
+        public JaroWinkler(float threshold) {
+            this.threshold = threshold;
+        }
+
+        private static boolean[][] getMatchFlags(int length) {
+            boolean[][] flags = MATCH_FLAGS.get();
+            if (flags[0].length < length) {
+                flags = new boolean[][]{new boolean[length], new boolean[length]};
+                MATCH_FLAGS.set(flags);
+            }
+            return flags;
+        }
+
+        private static double upperBound(int matches, int leftLength, int rightLength, double boost) {
+            // all matches without transpositions
+            final double jaro = ((double) matches / leftLength + (double) matches / rightLength + 1) / 3;
+            return jaro + boost * (1D - jaro);
+        }
+
+        @Override
+        public float getSimilarity(CharSequence left, CharSequence right, SimilarityContext context) {
+            if (left == null || right == null) {
+                throw new IllegalArgumentException("Strings must not be null");
+            }
+            final CharSequence max = left.length() > right.length() ? left : right;
+            final CharSequence min = left.length() > right.length() ? right : left;
+            final int maxLen = max.length();
+            final int minLen = min.length();
+            if (minLen == 0) {
+                return 0;
+            }
+            int prefix = 0;
+            while (prefix < minLen && left.charAt(prefix) == right.charAt(prefix)) {
+                prefix++;
+            }
+            final double boost = Math.min(SCALING_FACTOR, 1D / maxLen) * prefix;
+            if ((float) upperBound(minLen, left.length(), right.length(), boost) < threshold) {
+                return 0;
+            }
+
+            final boolean[][] flags = getMatchFlags(maxLen);
+            final boolean[] minFlags = flags[0];
+            final boolean[] maxFlags = flags[1];
+            Arrays.fill(minFlags, 0, minLen, false);
+            Arrays.fill(maxFlags, 0, maxLen, false);
+            final int range = Math.max(maxLen / 2 - 1, 0);
+            int matches = 0;
+            for (int mi = 0; mi < minLen; mi++) {
+                final char c = min.charAt(mi);
+                for (int xi = Math.max(mi - range, 0), xn = Math.min(mi + range + 1, maxLen); xi < xn; xi++) {
+                    if (!maxFlags[xi] && c == max.charAt(xi)) {
+                        minFlags[mi] = true;
+                        maxFlags[xi] = true;
+                        matches++;
+                        break;
+                    }
+                }
+                if (!minFlags[mi] && (float) upperBound(matches + minLen - mi - 1, left.length(), right.length(), boost) < threshold) {
+                    return 0;
+                }
+            }
+            if (matches == 0) {
+                return 0;
+            }
+
+            int transpositions = 0;
+            for (int mi = 0, xi = 0; mi < minLen; mi++) {
+                if (minFlags[mi]) {
+                    while (!maxFlags[xi]) {
+                        xi++;
+                    }
+                    if (min.charAt(mi) != max.charAt(xi)) {
+                        transpositions++;
+                    }
+                    xi++;
+                }
+            }
+            final double m = matches;
+            final double jaro = (m / left.length() + m / right.length() + (m - transpositions / 2) / m) / 3;
+            final double jaroWinkler = jaro < BOOST_THRESHOLD ? jaro : jaro + boost * (1D - jaro);
+            return CutoffSimiliarityMeasure.cutoff((float) jaroWinkler, threshold);
+        }
+
+        @Override
+        public SimilarityMeasure<T> cutoff(float threshold) {
+            if (threshold < this.threshold) {
+                return this;
+            }
+            return new JaroWinkler<>(threshold);
+        }
+    }
+
+    /**
+     * Aggregates several weighted similarities.<br>
+     * The {@link #weightedAverage()} is evaluated without boxing, starting with the highest weights. With a
+     * {@link #cutoff(float)}, the evaluation stops as soon as the average cannot reach the threshold anymore, even if
+     * all remaining similarities were 1, since the result is cut off to 0 anyway.
+     */
+    @Builder(toBuilder = true)
     @Value
     public static class WeightedAggregation<R> implements SimilarityMeasure<R> {
         BiFunction<List<Float>, List<Float>, Float> aggregator;
         @Singular
         List<WeightedSimilarity<R>> weightedSimilarities;
+        /**
+         * Aggregated similarities below this threshold are cut off to 0.
+         */
+        float threshold;
         @Getter(lazy = true)
         List<Float> weights = weightedSimilarities.stream().map(WeightedSimilarity::getWeight).collect(Collectors.toList());
+        @Getter(value = AccessLevel.PACKAGE, lazy = true)
+        List<WeightedSimilarity<R>> evaluationOrder = weightedSimilarities.stream()
+                .sorted(Comparator.comparing((WeightedSimilarity<R> ws) -> ws.getWeight()).reversed())
+                .collect(Collectors.toList());
+        @Getter(value = AccessLevel.PACKAGE, lazy = true)
+        float[] evaluationWeights = computeEvaluationWeights(getEvaluationOrder());
+        @Getter(value = AccessLevel.PACKAGE, lazy = true)
+        double[] remainingWeights = computeRemainingWeights(getEvaluationOrder());
+
+        private static <R> float[] computeEvaluationWeights(List<WeightedSimilarity<R>> evaluationOrder) {
+            final float[] weights = new float[evaluationOrder.size()];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = evaluationOrder.get(i).getWeight();
+            }
+            return weights;
+        }
+
+        private static <R> double[] computeRemainingWeights(List<WeightedSimilarity<R>> evaluationOrder) {
+            final double[] remainingWeights = new double[evaluationOrder.size()];
+            for (int i = remainingWeights.length - 2; i >= 0; i--) {
+                remainingWeights[i] = remainingWeights[i + 1] + evaluationOrder.get(i + 1).getWeight();
+            }
+            return remainingWeights;
+        }
 
         @Override
         public float getSimilarity(R left, R right, SimilarityContext context) {
+            if (isWeightedAverage()) {
+                final List<WeightedSimilarity<R>> evaluationOrder = getEvaluationOrder();
+                return weightedAverage(getEvaluationWeights(), getRemainingWeights(), threshold,
+                        (unused, i) -> evaluationOrder.get(i).getMeasure().getSimilarity(left, right, context), null,
+                        new double[2], 0);
+            }
             var weightedSims = weightedSimilarities.stream()
                     .map(ws -> ws.getMeasure().getSimilarity(left, right, context) * ws.getWeight())
                     .collect(Collectors.toList());
@@ -299,7 +851,99 @@ public class CommonSimilarityMeasures {
                     weightedSims.set(i, 0f);
                 }
             }
-            return aggregator.apply(weightedSims, adjustedWeights == null ? getWeights() : adjustedWeights);
+            final Float similarity = aggregator.apply(weightedSims, adjustedWeights == null ? getWeights() : adjustedWeights);
+            return CutoffSimiliarityMeasure.cutoff(similarity, threshold);
+        }
+
+        /**
+         * Evaluates the weighted average column by column, such that records are dropped from the batch as soon as
+         * they cannot reach the threshold anymore.
+         */
+        @Override
+        public void getSimilarities(R left, List<? extends R> rights, float[] similarities, SimilarityContext context) {
+            if (!isWeightedAverage()) {
+                SimilarityMeasure.super.getSimilarities(left, rights, similarities, context);
+                return;
+            }
+            final List<WeightedSimilarity<R>> evaluationOrder = getEvaluationOrder();
+            final float[] weights = getEvaluationWeights();
+            final double[] remainingWeights = getRemainingWeights();
+            final double[] sums = new double[2 * rights.size()];
+            final Batch<R> batch = new Batch<>(left, rights, similarities, 0, false);
+            for (int i = 0; batch.hasRemaining() && i < evaluationOrder.size(); i++) {
+                final float[] column = batch.evaluate(evaluationOrder.get(i).getMeasure(), context);
+                final int[] remaining = batch.getRemaining();
+                int numRemaining = 0;
+                for (int position = 0; position < remaining.length; position++) {
+                    final int index = remaining[position];
+                    if (accumulate(weights, remainingWeights, threshold, i, column[position], sums, 2 * index)) {
+                        remaining[numRemaining++] = index;
+                    } else {
+                        similarities[index] = 0;
+                    }
+                }
+                batch.truncate(numRemaining);
+            }
+            for (int index : batch.getRemaining()) {
+                similarities[index] = average(sums, 2 * index, threshold);
+            }
+        }
+
+        /**
+         * Computes the weighted average of the similarities in evaluation order, or 0 as soon as it cannot reach the
+         * threshold anymore. The running sums are kept in {@code sums[offset]} and {@code sums[offset + 1]}, such that
+         * callers can reuse the array.
+         */
+        static <C> float weightedAverage(float[] weights, double[] remainingWeights, float threshold,
+                                         IndexedSimilarity<C> similarities, C input, double[] sums, int offset) {
+            sums[offset] = 0;
+            sums[offset + 1] = 0;
+            for (int i = 0; i < weights.length; i++) {
+                if (!accumulate(weights, remainingWeights, threshold, i, similarities.getSimilarity(input, i), sums, offset)) {
+                    return 0;
+                }
+            }
+            return average(sums, offset, threshold);
+        }
+
+        /**
+         * Adds the known similarity of the i-th measure in evaluation order to the weighted sum in
+         * {@code sums[offset]} and the weight sum in {@code sums[offset + 1]}. Returns false if the average cannot reach
+         * the threshold anymore, even if all remaining similarities were 1.
+         */
+        private static boolean accumulate(float[] weights, double[] remainingWeights, float threshold, int i,
+                                          float similarity, double[] sums, int offset) {
+            if (!Float.isNaN(similarity)) {
+                sums[offset] += similarity * weights[i];
+                sums[offset + 1] += weights[i];
+            }
+            final double bestWeightSum = sums[offset + 1] + remainingWeights[i];
+            return threshold <= 0 || bestWeightSum <= 0
+                    || (float) ((sums[offset] + remainingWeights[i]) / bestWeightSum) >= threshold;
+        }
+
+        private static float average(double[] sums, int offset, float threshold) {
+            return CutoffSimiliarityMeasure.cutoff((float) (sums[offset] / sums[offset + 1]), threshold);
+        }
+
+        boolean isWeightedAverage() {
+            return aggregator == WEIGHTED_AVERAGE;
+        }
+
+        @Override
+        public SimilarityMeasure<R> cutoff(float threshold) {
+            if (threshold < this.threshold) {
+                return this;
+            }
+            return toBuilder().threshold(threshold).build();
+        }
+
+        /**
+         * Similarity of the i-th measure in evaluation order for the given input.
+         */
+        @FunctionalInterface
+        interface IndexedSimilarity<C> {
+            float getSimilarity(C input, int index);
         }
 
         @Value
@@ -319,6 +963,260 @@ public class CommonSimilarityMeasures {
         }
     }
 
+    /**
+     * Maximum of the known similarities of several measures; stops at the first perfect match.
+     */
+    @Value
+    static class Max<T> implements SimilarityMeasure<T> {
+        SimilarityMeasure<? super T>[] measures;
+
+        @Override
+        public float getSimilarity(T left, T right, SimilarityContext context) {
+            if (left == null || right == null) {
+                return unknown();
+            }
+            float max = -1;
+            for (int i = 0; max < 1 && i < measures.length; i++) {
+                float similarity = measures[i].getSimilarity(left, right, context);
+                if (!Float.isNaN(similarity)) {
+                    max = Math.max(similarity, max);
+                }
+            }
+            return max == -1 ? Float.NaN : max;
+        }
+
+        /**
+         * Evaluates the measures column by column for all records that did not have a perfect match yet.
+         */
+        @Override
+        public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+            final Batch<T> batch = new Batch<>(left, rights, similarities, -1, true);
+            for (int i = 0; batch.hasRemaining() && i < measures.length; i++) {
+                final float[] column = batch.evaluate(measures[i], context);
+                final int[] remaining = batch.getRemaining();
+                int numRemaining = 0;
+                for (int position = 0; position < remaining.length; position++) {
+                    final int index = remaining[position];
+                    if (!Float.isNaN(column[position])) {
+                        similarities[index] = Math.max(column[position], similarities[index]);
+                    }
+                    if (similarities[index] < 1) {
+                        remaining[numRemaining++] = index;
+                    }
+                }
+                batch.truncate(numRemaining);
+            }
+            batch.replaceInitial(-1, Float.NaN);
+        }
+    }
+
+    /**
+     * Minimum of the known similarities of several measures; stops at the first complete mismatch.
+     */
+    @Value
+    static class Min<T> implements SimilarityMeasure<T> {
+        SimilarityMeasure<? super T>[] measures;
+
+        @Override
+        public float getSimilarity(T left, T right, SimilarityContext context) {
+            if (left == null || right == null) {
+                return unknown();
+            }
+            float min = 2;
+            for (int i = 0; min > 0 && i < measures.length; i++) {
+                float similarity = measures[i].getSimilarity(left, right, context);
+                if (!Float.isNaN(similarity)) {
+                    min = Math.min(similarity, min);
+                }
+            }
+            return min == 2 ? Float.NaN : min;
+        }
+
+        /**
+         * Evaluates the measures column by column for all records that did not have a complete mismatch yet.
+         */
+        @Override
+        public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+            final Batch<T> batch = new Batch<>(left, rights, similarities, 2, true);
+            for (int i = 0; batch.hasRemaining() && i < measures.length; i++) {
+                final float[] column = batch.evaluate(measures[i], context);
+                final int[] remaining = batch.getRemaining();
+                int numRemaining = 0;
+                for (int position = 0; position < remaining.length; position++) {
+                    final int index = remaining[position];
+                    if (!Float.isNaN(column[position])) {
+                        similarities[index] = Math.min(column[position], similarities[index]);
+                    }
+                    if (similarities[index] > 0) {
+                        remaining[numRemaining++] = index;
+                    }
+                }
+                batch.truncate(numRemaining);
+            }
+            batch.replaceInitial(2, Float.NaN);
+        }
+    }
+
+    /**
+     * The records of a one-vs-many evaluation that still need to be evaluated by the next measure.
+     */
+    private static class Batch<T> {
+        private final T left;
+        private final List<? extends T> rights;
+        private final float[] similarities;
+        private final float[] column;
+        private int[] remaining;
+        private List<T> remainingRights;
+
+        Batch(T left, List<? extends T> rights, float[] similarities, float initialSimilarity, boolean unknownForNull) {
+            this.left = left;
+            this.rights = rights;
+            this.similarities = similarities;
+            this.column = new float[rights.size()];
+            this.remaining = new int[rights.size()];
+            this.remainingRights = new ArrayList<>(rights.size());
+            int numRemaining = 0;
+            for (int i = 0; i < rights.size(); i++) {
+                if (unknownForNull && (left == null || rights.get(i) == null)) {
+                    similarities[i] = unknown();
+                } else {
+                    similarities[i] = initialSimilarity;
+                    remaining[numRemaining++] = i;
+                    remainingRights.add(rights.get(i));
+                }
+            }
+            this.remaining = Arrays.copyOf(remaining, numRemaining);
+        }
+
+        boolean hasRemaining() {
+            return remaining.length > 0;
+        }
+
+        /**
+         * Returns the indexes of the remaining records, in the order of the evaluated columns.
+         */
+        int[] getRemaining() {
+            return remaining;
+        }
+
+        float[] evaluate(SimilarityMeasure<? super T> measure, SimilarityContext context) {
+            measure.getSimilarities(left, remainingRights, column, context);
+            return column;
+        }
+
+        /**
+         * Keeps only the first remaining records, after they have been compacted in {@link #getRemaining()}.
+         */
+        void truncate(int numRemaining) {
+            if (numRemaining < remaining.length) {
+                remaining = Arrays.copyOf(remaining, numRemaining);
+                remainingRights = new ArrayList<>(numRemaining);
+                for (int index : remaining) {
+                    remainingRights.add(rights.get(index));
+                }
+            }
+        }
+
+        void replaceInitial(float initialSimilarity, float replacement) {
+            for (int i = 0; i < rights.size(); i++) {
+                if (similarities[i] == initialSimilarity) {
+                    similarities[i] = replacement;
+                }
+            }
+        }
+    }
+
+    private enum SetOverlap {
+        JACCARD {
+            @Override
+            float getSimilarity(int intersection, int leftSize, int rightSize) {
+                return (float) intersection / (leftSize + rightSize - intersection);
+            }
+
+            @Override
+            double getMinIntersection(float threshold, int leftSize, int rightSize) {
+                return threshold * (leftSize + rightSize) / (1 + threshold);
+            }
+        },
+        DICE {
+            @Override
+            float getSimilarity(int intersection, int leftSize, int rightSize) {
+                return 2f * intersection / (leftSize + rightSize);
+            }
+
+            @Override
+            double getMinIntersection(float threshold, int leftSize, int rightSize) {
+                return threshold * (leftSize + rightSize) / 2.0;
+            }
+        },
+        OVERLAP {
+            @Override
+            float getSimilarity(int intersection, int leftSize, int rightSize) {
+                return (float) intersection / Math.min(leftSize, rightSize);
+            }
+
+            @Override
+            double getMinIntersection(float threshold, int leftSize, int rightSize) {
+                return (double) threshold * Math.min(leftSize, rightSize);
+            }
+        };
+
+        abstract float getSimilarity(int intersection, int leftSize, int rightSize);
+
+        abstract double getMinIntersection(float threshold, int leftSize, int rightSize);
+    }
+
+    @Value
+    private static class SketchSetSimilarity implements SimilarityMeasure<TokenSketch> {
+        private final SetOverlap overlap;
+        private final float cutoff;
+
+        @Override
+        public float getSimilarity(TokenSketch left, TokenSketch right, SimilarityContext context) {
+            if (left == null || right == null) {
+                return unknown();
+            }
+            final int leftSize = left.getDistinctSize();
+            final int rightSize = right.getDistinctSize();
+            // rounding down keeps the bound conservative; pairs below the threshold are cut off afterwards
+            final int minIntersection = (int) overlap.getMinIntersection(cutoff, leftSize, rightSize);
+            final int intersection = left.intersectionSize(right, minIntersection);
+            return CutoffSimiliarityMeasure.cutoff(overlap.getSimilarity(intersection, leftSize, rightSize), cutoff);
+        }
+
+        @Override
+        public SimilarityMeasure<TokenSketch> cutoff(float threshold) {
+            if (threshold < this.cutoff) {
+                return this;
+            }
+            return new SketchSetSimilarity(overlap, threshold);
+        }
+    }
+
+    @Value
+    private static class SketchCosine implements SimilarityMeasure<TokenSketch> {
+        private final float cutoff;
+
+        @Override
+        public float getSimilarity(TokenSketch left, TokenSketch right, SimilarityContext context) {
+            if (left == null || right == null) {
+                return unknown();
+            }
+            // rounding down keeps the bound conservative; pairs below the threshold are cut off afterwards
+            final long minProduct = (long) (cutoff * left.getNorm() * right.getNorm());
+            final long product = left.dotProduct(right, minProduct);
+            return CutoffSimiliarityMeasure.cutoff((float) (product / left.getNorm() / right.getNorm()), cutoff);
+        }
+
+        @Override
+        public SimilarityMeasure<TokenSketch> cutoff(float threshold) {
+            if (threshold < this.cutoff) {
+                return this;
+            }
+            return new SketchCosine(threshold);
+        }
+    }
+
     @Value
     private static class MongeElkan<C extends Collection<? extends T>, T> implements SimilarityMeasure<C> {
         private final SimilarityMeasure<T> pairMeasure;
@@ -330,19 +1228,31 @@ public class CommonSimilarityMeasures {
             if (leftCollection.isEmpty() || rightCollection.isEmpty()) {
                 return 0;
             }
-            List<T> leftList = ensureList(leftCollection);
+            // without a window, the positions do not matter and each distinct pair of tokens is only compared once
+            if (maxPositionDiff >= Math.max(leftCollection.size(), rightCollection.size())) {
+                return getMongeElkanSimilarity(TokenBag.<T>of(leftCollection), TokenBag.<T>of(rightCollection),
+                        pairMeasure, cutoff, context);
+            }
             List<T> rightList = ensureList(rightCollection);
             // when cutoff is .9 and |left| = 3, then on average each element has .1 buffer
             // as soon as the current sum + buffer < index, the cutoff threshold cannot be passed (buffer used up)
             float cutoffBuffer = (1 - cutoff) * leftCollection.size();
             float sum = 0;
-            for (int leftIndex = 0; leftIndex < leftCollection.size() && (cutoffBuffer + sum) >= leftIndex; leftIndex++) {
+            int leftIndex = 0;
+            for (T leftElement : leftCollection) {
+                if (cutoffBuffer + sum < leftIndex) {
+                    return 0;
+                }
                 float max = 0;
                 for (int rightIndex = Math.max(0, leftIndex - maxPositionDiff),
                      rightMax = Math.min(rightCollection.size(), leftIndex + maxPositionDiff); max < 1.0 && rightIndex < rightMax; rightIndex++) {
-                    max = Math.max(max, pairMeasure.getSimilarity(leftList.get(leftIndex), rightList.get(rightIndex), context));
+                    max = Math.max(max, pairMeasure.getSimilarity(leftElement, rightList.get(rightIndex), context));
+                }
+                if (Float.isNaN(max)) {
+                    return max;
                 }
                 sum += max;
+                leftIndex++;
             }
             return CutoffSimiliarityMeasure.cutoff(sum / leftCollection.size(), cutoff);
         }
@@ -352,4 +1262,26 @@ public class CommonSimilarityMeasures {
             return new MongeElkan<>(pairMeasure, maxPositionDiff, threshold);
         }
     }
+
+    /**
+     * Same as {@link #mongeElkan(SimilarityMeasure)} on prepared {@link TokenBag}s.
+     */
+    @Value
+    private static class BagMongeElkan<T> implements SimilarityMeasure<TokenBag<T>> {
+        private final SimilarityMeasure<? super T> pairMeasure;
+        private final float cutoff;
+
+        @Override
+        public float getSimilarity(TokenBag<T> left, TokenBag<T> right, SimilarityContext context) {
+            if (left.isEmpty() || right.isEmpty()) {
+                return 0;
+            }
+            return getMongeElkanSimilarity(left, right, pairMeasure, cutoff, context);
+        }
+
+        @Override
+        public SimilarityMeasure<TokenBag<T>> cutoff(float threshold) {
+            return new BagMongeElkan<>(pairMeasure, threshold);
+        }
+    }
 }
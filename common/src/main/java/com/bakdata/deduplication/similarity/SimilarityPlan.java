@@ -0,0 +1,410 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import com.bakdata.deduplication.similarity.CommonSimilarityMeasures.WeightedAggregation;
+import com.bakdata.deduplication.similarity.CommonSimilarityMeasures.WeightedAggregation.IndexedSimilarity;
+import com.bakdata.deduplication.similarity.CommonSimilarityMeasures.WeightedAggregation.WeightedSimilarity;
+import com.bakdata.deduplication.similarity.SimilarityMeasure.CutoffSimiliarityMeasure;
+import com.bakdata.deduplication.similarity.SimilarityMeasure.ScaledSimilarityMeasure;
+import com.bakdata.deduplication.similarity.SimilarityMeasure.UnknownIfSimilarityMeasure;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link SimilarityMeasure} tree compiled into a flat evaluation plan.<br>
+ * All transformations of {@link SimilarityPath}s are assigned to value slots. Paths that apply the same transformation
+ * instance to the same input share a slot, such that the transformation is applied only once per pair. The known
+ * combinators (max, min, weighted average, cutoff, scaling, unknownIf) are replaced by plan nodes that evaluate their
+ * children directly and handle exceptions without lambdas. All other measures are invoked as leaves. Each thread
+ * reuses one frame for the slot values, such that evaluating a pair does not allocate.
+ * <p>
+ * The plan returns the same similarities and records the same exceptions in the {@link SimilarityContext} as the
+ * interpreted tree.
+ * </p>
+ * <p>
+ * The max, min, and weighted average nodes call their children through the node interface, so these call sites see
+ * several node classes and are generally megamorphic. The gain comes from the shared slots and from avoiding the
+ * intermediate lambdas, not from devirtualization. Composing the plan from {@link java.lang.invoke.MethodHandle}s
+ * would not remove that dispatch: a plan is built at runtime and held in an instance field, and the JIT only inlines
+ * through method handles that are constants, such as those in static final fields.
+ * </p>
+ *
+ * @param <T> the type of the record
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class SimilarityPlan<T> implements SimilarityMeasure<T> {
+    private static final Object NULL_VALUE = new Object();
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private final Node root;
+    private final Slot[] slots;
+    private final int numSums;
+    /**
+     * Idle frame of the current thread, which is cleared and reused for the next evaluation.
+     */
+    private final ThreadLocal<Frame> frames = new ThreadLocal<>();
+
+    public static <T> SimilarityPlan<T> compile(SimilarityMeasure<T> measure) {
+        final Compiler compiler = new Compiler();
+        final Node root = compiler.compile(measure, 0);
+        return new SimilarityPlan<>(root, compiler.slots.toArray(new Slot[0]), compiler.numSums);
+    }
+
+    /**
+     * Returns the number of distinct transformations of a record, including the record itself.
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    @Override
+    public float getSimilarity(T left, T right, SimilarityContext context) {
+        final Frame frame = acquireFrame(context);
+        try {
+            frame.setRecords(left, right);
+            return root.evaluate(frame);
+        } finally {
+            releaseFrame(frame);
+        }
+    }
+
+    /**
+     * Evaluates the plan for each record, while the transformations of {@code left} are shared by all pairs.
+     */
+    @Override
+    public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+        final Frame frame = acquireFrame(context);
+        try {
+            for (int i = 0; i < rights.size(); i++) {
+                frame.clear(RIGHT);
+                frame.setRecords(left, rights.get(i));
+                similarities[i] = root.evaluate(frame);
+            }
+        } finally {
+            releaseFrame(frame);
+        }
+    }
+
+    /**
+     * Takes the idle frame of the current thread. A nested evaluation on the same thread, for example from within a
+     * leaf measure, gets a new frame instead.
+     */
+    private Frame acquireFrame(SimilarityContext context) {
+        Frame frame = frames.get();
+        if (frame == null) {
+            frame = new Frame(slots, numSums);
+        } else {
+            frames.set(null);
+        }
+        frame.context = context;
+        return frame;
+    }
+
+    private void releaseFrame(Frame frame) {
+        // do not retain the records and their transformations
+        frame.clear(LEFT);
+        frame.clear(RIGHT);
+        frame.context = null;
+        frames.set(frame);
+    }
+
+    @RequiredArgsConstructor
+    private static class Slot {
+        private final int inputSlot;
+        private final SimilarityTransformation<Object, ?> extractor;
+        private final boolean memoized;
+    }
+
+    @RequiredArgsConstructor
+    private static class Failure {
+        private final Exception exception;
+    }
+
+    /**
+     * The values of all slots for one pair, which are computed on first access.
+     */
+    private static class Frame {
+        private final Slot[] slots;
+        private final Object[][] values;
+        /**
+         * The running sums of the weighted average nodes.
+         */
+        private final double[] sums;
+        private SimilarityContext context;
+
+        private Frame(Slot[] slots, int numSums) {
+            this.slots = slots;
+            this.values = new Object[2][slots.length];
+            this.sums = new double[numSums];
+        }
+
+        void clear(int side) {
+            Arrays.fill(values[side], null);
+        }
+
+        void setRecords(Object left, Object right) {
+            values[LEFT][0] = left == null ? NULL_VALUE : left;
+            values[RIGHT][0] = right == null ? NULL_VALUE : right;
+        }
+
+        /**
+         * Returns the value of an already computed slot.
+         */
+        Object peek(int slot, int side) {
+            final Object value = values[side][slot];
+            return value == NULL_VALUE ? null : value;
+        }
+
+        @SuppressWarnings("squid:S00112")
+        Object get(int slot, int side) throws Exception {
+            Object value = values[side][slot];
+            if (value == null) {
+                value = compute(slots[slot], side);
+                values[side][slot] = value;
+            }
+            if (value instanceof Failure) {
+                throw ((Failure) value).exception;
+            }
+            return value == NULL_VALUE ? null : value;
+        }
+
+        @SuppressWarnings("squid:S00112")
+        private Object compute(Slot slot, int side) throws Exception {
+            final Object input = get(slot.inputSlot, side);
+            try {
+                final Object value = slot.memoized ? context.transform(slot.extractor, input)
+                        : slot.extractor.transform(input, context);
+                return value == null ? NULL_VALUE : value;
+            } catch (Exception e) {
+                return new Failure(e);
+            }
+        }
+    }
+
+    private static class Compiler {
+        private final List<Slot> slots = new ArrayList<>(List.of(new Slot(-1, null, false)));
+        private int numSums;
+
+        @SuppressWarnings("unchecked")
+        private int getSlot(int inputSlot, SimilarityTransformation<?, ?> extractor, boolean memoized) {
+            for (int slot = 1; slot < slots.size(); slot++) {
+                final Slot candidate = slots.get(slot);
+                if (candidate.inputSlot == inputSlot && candidate.extractor == extractor && candidate.memoized == memoized) {
+                    return slot;
+                }
+            }
+            slots.add(new Slot(inputSlot, (SimilarityTransformation<Object, ?>) extractor, memoized));
+            return slots.size() - 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node compile(SimilarityMeasure<?> measure, int inputSlot) {
+            if (measure instanceof SimilarityPath) {
+                final SimilarityPath<?, ?> path = (SimilarityPath<?, ?>) measure;
+                final int slot = getSlot(inputSlot, path.getExtractor(), path.isMemoized());
+                return new PathNode(slot, compile(path.getMeasure(), slot));
+            }
+            if (measure instanceof CutoffSimiliarityMeasure) {
+                final CutoffSimiliarityMeasure<?> cutoff = (CutoffSimiliarityMeasure<?>) measure;
+                return new CutoffNode(compile(cutoff.getInner(), inputSlot), cutoff.getThreshold());
+            }
+            if (measure instanceof ScaledSimilarityMeasure) {
+                final ScaledSimilarityMeasure<?> scaled = (ScaledSimilarityMeasure<?>) measure;
+                return new ScaledNode(compile(scaled.getInner(), inputSlot), scaled.getMin());
+            }
+            if (measure instanceof UnknownIfSimilarityMeasure) {
+                final UnknownIfSimilarityMeasure<?> unknownIf = (UnknownIfSimilarityMeasure<?>) measure;
+                return new UnknownIfNode(compile(unknownIf.getInner(), inputSlot), unknownIf.getScorePredicate());
+            }
+            if (measure instanceof CommonSimilarityMeasures.Max) {
+                return new MaxNode(inputSlot, compileAll(((CommonSimilarityMeasures.Max<?>) measure).getMeasures(), inputSlot));
+            }
+            if (measure instanceof CommonSimilarityMeasures.Min) {
+                return new MinNode(inputSlot, compileAll(((CommonSimilarityMeasures.Min<?>) measure).getMeasures(), inputSlot));
+            }
+            if (measure instanceof WeightedAggregation && ((WeightedAggregation<?>) measure).isWeightedAverage()) {
+                return compileWeightedAverage((WeightedAggregation<?>) measure, inputSlot);
+            }
+            return new LeafNode((SimilarityMeasure<Object>) measure, inputSlot);
+        }
+
+        private Node[] compileAll(SimilarityMeasure<?>[] measures, int inputSlot) {
+            final Node[] nodes = new Node[measures.length];
+            for (int i = 0; i < measures.length; i++) {
+                nodes[i] = compile(measures[i], inputSlot);
+            }
+            return nodes;
+        }
+
+        private Node compileWeightedAverage(WeightedAggregation<?> aggregation, int inputSlot) {
+            final List<? extends WeightedSimilarity<?>> evaluationOrder = aggregation.getEvaluationOrder();
+            final Node[] children = new Node[evaluationOrder.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = compile(evaluationOrder.get(i).getMeasure(), inputSlot);
+            }
+            final int sumOffset = numSums;
+            numSums += 2;
+            return new WeightedAverageNode(children, aggregation.getEvaluationWeights(), aggregation.getRemainingWeights(),
+                    aggregation.getThreshold(), sumOffset);
+        }
+    }
+
+    private interface Node {
+        float evaluate(Frame frame);
+    }
+
+    @RequiredArgsConstructor
+    private static class LeafNode implements Node {
+        private final SimilarityMeasure<Object> measure;
+        private final int inputSlot;
+
+        @Override
+        public float evaluate(Frame frame) {
+            return measure.getSimilarity(frame.peek(inputSlot, LEFT), frame.peek(inputSlot, RIGHT), frame.context);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class PathNode implements Node {
+        private final int slot;
+        private final Node child;
+
+        @Override
+        public float evaluate(Frame frame) {
+            final SimilarityContext context = frame.context;
+            try {
+                if (frame.get(slot, LEFT) == null || frame.get(slot, RIGHT) == null) {
+                    return context.getSimilarityForNull();
+                }
+                return child.evaluate(frame);
+            } catch (Exception e) {
+                context.addException(e);
+                return context.getSimilarityForNull();
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class CutoffNode implements Node {
+        private final Node child;
+        private final float threshold;
+
+        @Override
+        public float evaluate(Frame frame) {
+            return CutoffSimiliarityMeasure.cutoff(child.evaluate(frame), threshold);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ScaledNode implements Node {
+        private final Node child;
+        private final float min;
+
+        @Override
+        public float evaluate(Frame frame) {
+            return SimilarityMeasure.scaleWithThreshold(child.evaluate(frame), min);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class UnknownIfNode implements Node {
+        private final Node child;
+        private final Predicate<Float> scorePredicate;
+
+        @Override
+        public float evaluate(Frame frame) {
+            final float similarity = child.evaluate(frame);
+            return scorePredicate.test(similarity) ? SimilarityMeasure.unknown() : similarity;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class MaxNode implements Node {
+        private final int inputSlot;
+        private final Node[] children;
+
+        @Override
+        public float evaluate(Frame frame) {
+            if (frame.peek(inputSlot, LEFT) == null || frame.peek(inputSlot, RIGHT) == null) {
+                return SimilarityMeasure.unknown();
+            }
+            float max = -1;
+            for (int i = 0; max < 1 && i < children.length; i++) {
+                final float similarity = children[i].evaluate(frame);
+                if (!Float.isNaN(similarity)) {
+                    max = Math.max(similarity, max);
+                }
+            }
+            return max == -1 ? Float.NaN : max;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class MinNode implements Node {
+        private final int inputSlot;
+        private final Node[] children;
+
+        @Override
+        public float evaluate(Frame frame) {
+            if (frame.peek(inputSlot, LEFT) == null || frame.peek(inputSlot, RIGHT) == null) {
+                return SimilarityMeasure.unknown();
+            }
+            float min = 2;
+            for (int i = 0; min > 0 && i < children.length; i++) {
+                final float similarity = children[i].evaluate(frame);
+                if (!Float.isNaN(similarity)) {
+                    min = Math.min(similarity, min);
+                }
+            }
+            return min == 2 ? Float.NaN : min;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class WeightedAverageNode implements Node, IndexedSimilarity<Frame> {
+        private final Node[] children;
+        private final float[] weights;
+        private final double[] remainingWeights;
+        private final float threshold;
+        private final int sumOffset;
+
+        @Override
+        public float evaluate(Frame frame) {
+            return WeightedAggregation.weightedAverage(weights, remainingWeights, threshold, this, frame, frame.sums,
+                    sumOffset);
+        }
+
+        @Override
+        public float getSimilarity(Frame frame, int index) {
+            return children[index].evaluate(frame);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoLocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Similarity measures for dates that work on the epoch day of the dates instead of on temporal units or formatted
+ * strings, such that a comparison does not allocate any objects.
+ */
+@SuppressWarnings("WeakerAccess")
+@UtilityClass
+public class TemporalSimilarityMeasures {
+    private static final int ISO_LENGTH = 10;
+    private static final int DAYS_PER_CYCLE = 146_097;
+    // days from 0000-03-01 to 1970-01-01
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+    private static final ThreadLocal<char[]> ISO_DIGITS = ThreadLocal.withInitial(() -> new char[2 * ISO_LENGTH]);
+
+    /**
+     * Same as {@link CommonSimilarityMeasures#maxDiff(int, java.time.temporal.TemporalUnit)} with
+     * {@link java.time.temporal.ChronoUnit#DAYS}.
+     */
+    public static <T extends ChronoLocalDate> SimilarityMeasure<T> maxDayDiff(int maxDays) {
+        return (left, right, context) -> dayDiffSimilarity(left.toEpochDay(), right.toEpochDay(), maxDays);
+    }
+
+    public static float dayDiffSimilarity(long leftEpochDay, long rightEpochDay, int maxDays) {
+        return Math.max(0, 1 - (float) Math.abs(leftEpochDay - rightEpochDay) / maxDays);
+    }
+
+    /**
+     * Returns 1 for equal dates, the given similarity for dates of the same year with swapped day and month, and 0
+     * otherwise.
+     */
+    public static <T extends ChronoLocalDate> SimilarityMeasure<T> dayMonthTransposition(float similarity) {
+        return (left, right, context) -> {
+            final long leftEpochDay = left.toEpochDay();
+            final long rightEpochDay = right.toEpochDay();
+            if (leftEpochDay == rightEpochDay) {
+                return 1;
+            }
+            return isDayMonthTransposition(leftEpochDay, rightEpochDay) ? similarity : 0;
+        };
+    }
+
+    public static boolean isDayMonthTransposition(long leftEpochDay, long rightEpochDay) {
+        final long left = toCivil(leftEpochDay);
+        final long right = toCivil(rightEpochDay);
+        return getYear(left) == getYear(right) && getMonth(left) == getDay(right) && getDay(left) == getMonth(right);
+    }
+
+    /**
+     * Same as {@code levenshtein().of(DateTimeFormatter.ISO_LOCAL_DATE::format)} but writes the digits of the dates
+     * into a reused buffer. Only dates outside of the years 0 to 9999 are actually formatted.
+     */
+    public static <T extends ChronoLocalDate> SimilarityMeasure<T> isoLevenshtein() {
+        return new IsoLevenshtein<>(0);
+    }
+
+    /**
+     * Computes the edit distance of the ISO representations of the two dates if it does not exceed the given maximum
+     * distance.
+     *
+     * @return the edit distance or -1 if it exceeds the maximum distance
+     */
+    public static int isoDistance(long leftEpochDay, long rightEpochDay, int maxDistance) {
+        final long left = toCivil(leftEpochDay);
+        final long right = toCivil(rightEpochDay);
+        if (!hasIsoDigits(left) || !hasIsoDigits(right)) {
+            final String leftString = format(leftEpochDay);
+            final String rightString = format(rightEpochDay);
+            final int[][] rows = CommonSimilarityMeasures.Levensthein.getRows(
+                    Math.min(leftString.length(), rightString.length()) + 1);
+            return CommonSimilarityMeasures.Levensthein.distance(leftString, rightString, maxDistance, rows[0], rows[1]);
+        }
+        final char[] digits = ISO_DIGITS.get();
+        writeIsoDigits(left, digits, 0);
+        writeIsoDigits(right, digits, ISO_LENGTH);
+        final int[][] rows = CommonSimilarityMeasures.Levensthein.getRows(ISO_LENGTH + 1);
+        return CommonSimilarityMeasures.Levensthein.distance(digits, 0, ISO_LENGTH, digits, ISO_LENGTH, ISO_LENGTH,
+                maxDistance, rows[0], rows[1]);
+    }
+
+    private static int getIsoLength(long epochDay) {
+        final long civil = toCivil(epochDay);
+        return hasIsoDigits(civil) ? ISO_LENGTH : format(epochDay).length();
+    }
+
+    private static String format(long epochDay) {
+        return DateTimeFormatter.ISO_LOCAL_DATE.format(LocalDate.ofEpochDay(epochDay));
+    }
+
+    /**
+     * Converts the epoch day into the proleptic Gregorian year, month, and day, which are packed into a single long
+     * as {@code year << 16 | month << 8 | day}.
+     */
+    static long toCivil(long epochDay) {
+        final long shifted = epochDay + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(shifted, DAYS_PER_CYCLE);
+        final long dayOfEra = shifted - era * DAYS_PER_CYCLE;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146_096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        // the year starts in March, such that the leap day is the last day of the year
+        final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 16 | month << 8 | day;
+    }
+
+    static long getYear(long civil) {
+        return civil >> 16;
+    }
+
+    static int getMonth(long civil) {
+        return (int) (civil >> 8 & 0xFF);
+    }
+
+    static int getDay(long civil) {
+        return (int) (civil & 0xFF);
+    }
+
+    private static boolean hasIsoDigits(long civil) {
+        final long year = getYear(civil);
+        return year >= 0 && year <= 9999;
+    }
+
+    private static void writeIsoDigits(long civil, char[] buffer, int offset) {
+        final int year = (int) getYear(civil);
+        final int month = getMonth(civil);
+        final int day = getDay(civil);
+        buffer[offset] = (char) ('0' + year / 1000);
+        buffer[offset + 1] = (char) ('0' + year / 100 % 10);
+        buffer[offset + 2] = (char) ('0' + year / 10 % 10);
+        buffer[offset + 3] = (char) ('0' + year % 10);
+        buffer[offset + 4] = '-';
+        buffer[offset + 5] = (char) ('0' + month / 10);
+        buffer[offset + 6] = (char) ('0' + month % 10);
+        buffer[offset + 7] = '-';
+        buffer[offset + 8] = (char) ('0' + day / 10);
+        buffer[offset + 9] = (char) ('0' + day % 10);
+    }
+
+    public static class IsoLevenshtein<T extends ChronoLocalDate> implements SimilarityMeasure<T> {
+        private final float threshold;
+
+        public IsoLevenshtein(float threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public float getSimilarity(T left, T right, SimilarityContext context) {
+            final long leftEpochDay = left.toEpochDay();
+            final long rightEpochDay = right.toEpochDay();
+            final int maxLen = Math.max(getIsoLength(leftEpochDay), getIsoLength(rightEpochDay));
+            final int distance = isoDistance(leftEpochDay, rightEpochDay, (int) (maxLen * (1 - threshold)));
+            if (distance == -1) {
+                return 0;
+            }
+            return 1f - (float) distance / maxLen;
+        }
+
+        @Override
+        public SimilarityMeasure<T> cutoff(float threshold) {
+            if (threshold < this.threshold) {
+                return this;
+            }
+            return new IsoLevenshtein<>(threshold);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Document frequencies of tokens, which are maintained while the records are ingested and are used to weigh the tokens
+ * of two records by their inverse document frequency (IDF). Frequent tokens such as common surnames thus contribute
+ * less to the similarity than rare tokens.<br>
+ * The weighted and normalized vector of a token collection is cached by identity, such that the tokens of a record
+ * that is compared with many other records are only weighted once when the tokens are cached by a
+ * {@link TransformationCache}. A cached vector is recomputed when the number of documents changed by more than
+ * {@link #getMaxStaleness()}.<br>
+ * The corpus is not fed automatically. Either register {@link #ingestion(Function)} as an ingestion hook of the
+ * {@link RecordPreparation} of the deduplication or {@link #add(Collection) add} and {@link #remove(Collection) remove}
+ * the tokens of the records manually.
+ *
+ * @param <T> the type of the tokens
+ */
+@Value
+@Builder
+public class TfIdfCorpus<T> {
+    private static final int INDEX_THRESHOLD = 16;
+    @Builder.Default
+    long maxCachedVectors = 100_000;
+    @Builder.Default
+    double maxStaleness = .01;
+    @Getter(AccessLevel.NONE)
+    ConcurrentMap<T, Long> documentFrequencies = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    LongAdder documents = new LongAdder();
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    Cache<Collection<? extends T>, WeightedVector<T>> vectors = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(maxCachedVectors)
+            .build();
+
+    public static <T> TfIdfCorpus<T> create() {
+        return TfIdfCorpus.<T>builder().build();
+    }
+
+    /**
+     * Adds the tokens of one record, where each distinct token is counted once.
+     */
+    public void add(Collection<? extends T> tokens) {
+        for (T token : new HashSet<>(tokens)) {
+            documentFrequencies.merge(token, 1L, Long::sum);
+        }
+        documents.increment();
+    }
+
+    public void addAll(Iterable<? extends Collection<? extends T>> records) {
+        records.forEach(this::add);
+    }
+
+    /**
+     * Removes the tokens of a previously added record. Tokens that do not occur in any document anymore are dropped.
+     */
+    public void remove(Collection<? extends T> tokens) {
+        for (T token : new HashSet<>(tokens)) {
+            documentFrequencies.computeIfPresent(token, (t, frequency) -> frequency > 1 ? frequency - 1 : null);
+        }
+        documents.decrement();
+    }
+
+    /**
+     * Hook that adds the tokens of each ingested record, which can be registered as an ingestion hook of a
+     * {@link RecordPreparation}. Records without tokens are skipped.
+     */
+    public <R> Consumer<R> ingestion(Function<? super R, ? extends Collection<? extends T>> tokenExtractor) {
+        return record -> {
+            final Collection<? extends T> tokens = tokenExtractor.apply(record);
+            if (tokens != null) {
+                add(tokens);
+            }
+        };
+    }
+
+    int getNumTokens() {
+        return documentFrequencies.size();
+    }
+
+    public long getNumDocuments() {
+        return documents.sum();
+    }
+
+    public long getDocumentFrequency(T token) {
+        return documentFrequencies.getOrDefault(token, 0L);
+    }
+
+    /**
+     * Smoothed inverse document frequency, which is positive even for tokens that occur in all documents or in none.
+     */
+    public double getIdf(T token) {
+        return Math.log((getNumDocuments() + 1.0) / (getDocumentFrequency(token) + 1.0)) + 1;
+    }
+
+    /**
+     * Cosine similarity of the TF-IDF vectors of the two token collections.
+     */
+    public <C extends Collection<? extends T>> SimilarityMeasure<C> cosine() {
+        return (left, right, context) -> {
+            if (left == null || right == null || left.isEmpty() || right.isEmpty()) {
+                return SimilarityMeasure.unknown();
+            }
+            return Math.min(1, getVector(left).dotProduct(getVector(right)));
+        };
+    }
+
+    /**
+     * SoftTF-IDF of Cohen et al., which also matches tokens that are only similar: each token of the left collection
+     * is matched with its most similar token of the right collection if their similarity exceeds the threshold, and
+     * the product of their weights is scaled by that similarity.
+     */
+    public <C extends Collection<? extends T>> SimilarityMeasure<C> softCosine(SimilarityMeasure<? super T> tokenMeasure,
+                                                                              float threshold) {
+        return (left, right, context) -> {
+            if (left == null || right == null || left.isEmpty() || right.isEmpty()) {
+                return SimilarityMeasure.unknown();
+            }
+            final WeightedVector<T> leftVector = getVector(left);
+            final WeightedVector<T> rightVector = getVector(right);
+            final List<T> rightTokens = rightVector.getTokens();
+            float similarity = 0;
+            for (int i = 0; i < leftVector.getTokens().size(); i++) {
+                final T leftToken = leftVector.getTokens().get(i);
+                float bestSimilarity = threshold;
+                int bestIndex = -1;
+                for (int j = 0; j < rightTokens.size() && bestSimilarity < 1; j++) {
+                    final float tokenSimilarity = tokenMeasure.getSimilarity(leftToken, rightTokens.get(j), context);
+                    if (tokenSimilarity > bestSimilarity) {
+                        bestSimilarity = tokenSimilarity;
+                        bestIndex = j;
+                    }
+                }
+                if (bestIndex >= 0) {
+                    similarity += leftVector.getWeights()[i] * rightVector.getWeights()[bestIndex] * bestSimilarity;
+                }
+            }
+            return Math.min(1, similarity);
+        };
+    }
+
+    WeightedVector<T> getVector(Collection<? extends T> tokens) {
+        final long numDocuments = getNumDocuments();
+        final WeightedVector<T> cached = getVectors().getIfPresent(tokens);
+        if (cached != null && Math.abs(cached.getNumDocuments() - numDocuments) <= maxStaleness * cached.getNumDocuments()) {
+            return cached;
+        }
+        final WeightedVector<T> vector = weigh(tokens, numDocuments);
+        getVectors().put(tokens, vector);
+        return vector;
+    }
+
+    private WeightedVector<T> weigh(Collection<? extends T> tokens, long numDocuments) {
+        final Map<T, Integer> termFrequencies = new LinkedHashMap<>();
+        for (T token : tokens) {
+            termFrequencies.merge(token, 1, Integer::sum);
+        }
+        final List<T> distinctTokens = new ArrayList<>(termFrequencies.keySet());
+        final float[] weights = new float[distinctTokens.size()];
+        double squaredNorm = 0;
+        int index = 0;
+        for (Map.Entry<T, Integer> entry : termFrequencies.entrySet()) {
+            final double weight = Math.log1p(entry.getValue()) * getIdf(entry.getKey());
+            weights[index++] = (float) weight;
+            squaredNorm += weight * weight;
+        }
+        final float norm = (float) Math.sqrt(squaredNorm);
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= norm;
+        }
+        return new WeightedVector<>(distinctTokens, weights, numDocuments);
+    }
+
+    /**
+     * Distinct tokens with their TF-IDF weights normalized to unit length.
+     */
+    @Value
+    static class WeightedVector<T> {
+        List<T> tokens;
+        float[] weights;
+        long numDocuments;
+        @Getter(value = AccessLevel.PRIVATE, lazy = true)
+        Map<T, Integer> index = createIndex();
+
+        private Map<T, Integer> createIndex() {
+            final Map<T, Integer> index = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                index.put(tokens.get(i), i);
+            }
+            return index;
+        }
+
+        float dotProduct(WeightedVector<T> other) {
+            final WeightedVector<T> smaller = tokens.size() <= other.tokens.size() ? this : other;
+            final WeightedVector<T> larger = smaller == this ? other : this;
+            float product = 0;
+            if (larger.tokens.size() <= INDEX_THRESHOLD) {
+                for (int i = 0; i < smaller.tokens.size(); i++) {
+                    final int j = larger.tokens.indexOf(smaller.tokens.get(i));
+                    if (j >= 0) {
+                        product += smaller.weights[i] * larger.weights[j];
+                    }
+                }
+            } else {
+                for (int i = 0; i < smaller.tokens.size(); i++) {
+                    final Integer j = larger.getIndex().get(smaller.tokens.get(i));
+                    if (j != null) {
+                        product += smaller.weights[i] * larger.weights[j];
+                    }
+                }
+            }
+            return product;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Distinct tokens of a collection in the order of their first occurrence together with their multiplicities.<br>
+ * Token measures such as Monge-Elkan only need to compare each distinct pair of tokens once. A bag can be prepared
+ * with {@link CommonSimilarityMeasures#tokenBag()} and cached, such that the tokens of a record are only counted once.
+ *
+ * @param <T> the type of the tokens
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@EqualsAndHashCode
+public class TokenBag<T> {
+    private static final int SCAN_THRESHOLD = 16;
+    private static final TokenBag<?> EMPTY = new TokenBag<>(new Object[0], new int[0], 0);
+    private final Object[] tokens;
+    private final int[] counts;
+    /**
+     * The number of tokens including duplicates.
+     */
+    @Getter
+    private final int size;
+
+    @SuppressWarnings("unchecked")
+    public static <T> TokenBag<T> empty() {
+        return (TokenBag<T>) EMPTY;
+    }
+
+    public static <T> TokenBag<T> of(Collection<? extends T> tokens) {
+        if (tokens.isEmpty()) {
+            return empty();
+        }
+        final Object[] distinctTokens = new Object[tokens.size()];
+        final int[] counts = new int[tokens.size()];
+        int numDistinct = 0;
+        // short collections are deduplicated with a linear scan, which is cheaper than hashing
+        final Map<Object, Integer> index = tokens.size() > SCAN_THRESHOLD ? new HashMap<>() : null;
+        for (T token : tokens) {
+            final int position = index == null ? indexOf(distinctTokens, numDistinct, token) :
+                    index.getOrDefault(token, -1);
+            if (position >= 0) {
+                counts[position]++;
+            } else {
+                if (index != null) {
+                    index.put(token, numDistinct);
+                }
+                distinctTokens[numDistinct] = token;
+                counts[numDistinct++] = 1;
+            }
+        }
+        return new TokenBag<>(Arrays.copyOf(distinctTokens, numDistinct), Arrays.copyOf(counts, numDistinct),
+                tokens.size());
+    }
+
+    private static int indexOf(Object[] tokens, int length, Object token) {
+        for (int i = 0; i < length; i++) {
+            if (Objects.equals(tokens[i], token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getDistinctSize() {
+        return tokens.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getToken(int index) {
+        return (T) tokens[index];
+    }
+
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> getTokens() {
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(tokens));
+    }
+}
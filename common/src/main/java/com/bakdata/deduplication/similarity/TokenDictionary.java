@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps each distinct token to a dense {@code int} id, such that prepared records can be compared on {@link TokenSketch}es
+ * of exact ids instead of on strings or hashes.<br>
+ * The vocabulary of names is small compared to the number of comparisons, so the scores of token measures can also be
+ * cached by the ids of the two tokens, see {@link #mongeElkan(SimilarityMeasure)}. Ids are never reassigned; the
+ * dictionary only grows.
+ */
+public class TokenDictionary {
+    private static final TokenDictionary GLOBAL = new TokenDictionary();
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PAIR_CACHE_BITS = 14;
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // grown under the lock; an id is only published through the map after its token has been written
+    private volatile String[] tokens = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the dictionary that is shared by all records of the JVM.
+     */
+    public static TokenDictionary global() {
+        return GLOBAL;
+    }
+
+    public int getId(CharSequence token) {
+        final String string = token.toString();
+        final Integer id = ids.get(string);
+        return id != null ? id : addToken(string);
+    }
+
+    private synchronized int addToken(String token) {
+        final Integer existingId = ids.get(token);
+        if (existingId != null) {
+            return existingId;
+        }
+        String[] currentTokens = tokens;
+        if (size == currentTokens.length) {
+            currentTokens = Arrays.copyOf(currentTokens, size * 2);
+            tokens = currentTokens;
+        }
+        currentTokens[size] = token;
+        ids.put(token, size);
+        return size++;
+    }
+
+    public String getToken(int id) {
+        return tokens[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public TokenSketch sketchOf(Iterable<? extends CharSequence> tokens) {
+        int[] tokenIds = new int[8];
+        int numTokens = 0;
+        for (CharSequence token : tokens) {
+            if (numTokens == tokenIds.length) {
+                tokenIds = Arrays.copyOf(tokenIds, numTokens * 2);
+            }
+            tokenIds[numTokens++] = getId(token);
+        }
+        return TokenSketch.ofIds(Arrays.copyOf(tokenIds, numTokens));
+    }
+
+    public TokenSketch ngramSketchOf(CharSequence sequence, int n) {
+        final int numNgrams = sequence.length() - n + 1;
+        if (numNgrams <= 0) {
+            return TokenSketch.empty();
+        }
+        final int[] ngramIds = new int[numNgrams];
+        for (int i = 0; i < numNgrams; i++) {
+            ngramIds[i] = getId(sequence.subSequence(i, i + n));
+        }
+        return TokenSketch.ofIds(ngramIds);
+    }
+
+    /**
+     * Same as {@link CommonSimilarityMeasures#mongeElkan(SimilarityMeasure)} on sketches of this dictionary.<br>
+     * The scores of the pair measure are cached per thread in a direct-mapped table of {@code 2^14} token id pairs,
+     * which only holds exact results and thus does not need to be invalidated.
+     */
+    public SimilarityMeasure<TokenSketch> mongeElkan(SimilarityMeasure<? super String> pairMeasure) {
+        return mongeElkan(pairMeasure, PAIR_CACHE_BITS);
+    }
+
+    public SimilarityMeasure<TokenSketch> mongeElkan(SimilarityMeasure<? super String> pairMeasure, int cacheBits) {
+        if (cacheBits < 1 || cacheBits > 30) {
+            throw new IllegalArgumentException("The cache needs between 1 and 30 bits, but got " + cacheBits);
+        }
+        return new IdMongeElkan(pairMeasure, ThreadLocal.withInitial(() -> new PairScores(cacheBits)), 0);
+    }
+
+    private class IdMongeElkan implements SimilarityMeasure<TokenSketch> {
+        private final SimilarityMeasure<? super String> pairMeasure;
+        private final ThreadLocal<PairScores> pairScores;
+        private final float cutoff;
+
+        IdMongeElkan(SimilarityMeasure<? super String> pairMeasure, ThreadLocal<PairScores> pairScores, float cutoff) {
+            this.pairMeasure = pairMeasure;
+            this.pairScores = pairScores;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        public float getSimilarity(TokenSketch left, TokenSketch right, SimilarityContext context) {
+            if (left.isEmpty() || right.isEmpty()) {
+                return 0;
+            }
+            final int[] leftIds = left.getHashes();
+            final int[] leftCounts = left.getCounts();
+            final int[] rightIds = right.getHashes();
+            int numTokens = 0;
+            for (int count : leftCounts) {
+                numTokens += count;
+            }
+            final PairScores scores = pairScores.get();
+            final float cutoffBuffer = (1 - cutoff) * numTokens;
+            float sum = 0;
+            int processed = 0;
+            for (int leftIndex = 0; leftIndex < leftIds.length; leftIndex++) {
+                if (cutoffBuffer + sum < processed) {
+                    return 0;
+                }
+                float max = 0;
+                for (int rightIndex = 0; max < 1.0 && rightIndex < rightIds.length; rightIndex++) {
+                    max = Math.max(max, getScore(scores, leftIds[leftIndex], rightIds[rightIndex], context));
+                }
+                if (Float.isNaN(max)) {
+                    return max;
+                }
+                sum += leftCounts[leftIndex] * max;
+                processed += leftCounts[leftIndex];
+            }
+            return CutoffSimiliarityMeasure.cutoff(sum / numTokens, cutoff);
+        }
+
+        private float getScore(PairScores scores, int leftId, int rightId, SimilarityContext context) {
+            final long key = (long) leftId << Integer.SIZE | rightId;
+            final int slot = scores.getSlot(key);
+            if (scores.keys[slot] == key) {
+                return scores.values[slot];
+            }
+            final int numExceptions = context.getNumExceptions();
+            final float score = pairMeasure.getSimilarity(getToken(leftId), getToken(rightId), context);
+            // a fallback score of a failed comparison must not hide the exception from later pairs
+            if (context.getNumExceptions() == numExceptions) {
+                scores.keys[slot] = key;
+                scores.values[slot] = score;
+            }
+            return score;
+        }
+
+        @Override
+        public SimilarityMeasure<TokenSketch> cutoff(float threshold) {
+            return new IdMongeElkan(pairMeasure, pairScores, threshold);
+        }
+    }
+
+    private static class PairScores {
+        private final long[] keys;
+        private final float[] values;
+        private final int shift;
+
+        PairScores(int bits) {
+            keys = new long[1 << bits];
+            values = new float[1 << bits];
+            shift = Long.SIZE - bits;
+            // ids are non-negative, so no pair is mapped to -1
+            Arrays.fill(keys, -1);
+        }
+
+        int getSlot(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * Primitive bag of tokens, where each token is hashed to an {@code int}.<br>
+ * The distinct hashes are kept in a sorted array together with their counts, such that set and vector similarities
+ * can be computed with a single merge scan and without any allocation. Distinct tokens with colliding hashes are
+ * counted as the same token.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@EqualsAndHashCode(exclude = "norm")
+public class TokenSketch {
+    private static final TokenSketch EMPTY = new TokenSketch(new int[0], new int[0], 0);
+    @Getter(AccessLevel.PACKAGE)
+    private final int[] hashes;
+    @Getter(AccessLevel.PACKAGE)
+    private final int[] counts;
+    /**
+     * The euclidean norm of the token counts.
+     */
+    @Getter
+    private final double norm;
+
+    public static TokenSketch empty() {
+        return EMPTY;
+    }
+
+    public static TokenSketch ofTokens(Iterable<? extends CharSequence> tokens) {
+        int[] hashes = new int[8];
+        int size = 0;
+        for (CharSequence token : tokens) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = hash(token, 0, token.length());
+        }
+        return ofHashes(hashes, size);
+    }
+
+    /**
+     * Creates a sketch of exact token ids, for example from a {@link TokenDictionary}, such that distinct tokens are
+     * never counted as the same token.
+     */
+    public static TokenSketch ofIds(int[] ids) {
+        return ofHashes(Arrays.copyOf(ids, ids.length), ids.length);
+    }
+
+    public static TokenSketch ofNgrams(CharSequence sequence, int n) {
+        final int size = sequence.length() - n + 1;
+        if (size <= 0) {
+            return EMPTY;
+        }
+        final int[] hashes = new int[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = hash(sequence, i, i + n);
+        }
+        return ofHashes(hashes, size);
+    }
+
+    private static int hash(CharSequence sequence, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + sequence.charAt(i);
+        }
+        // spread the bits, such that similar tokens do not end up next to each other
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static TokenSketch ofHashes(int[] hashes, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(hashes, 0, size);
+        int distinct = 0;
+        final int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || hashes[i] != hashes[distinct - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+            counts[distinct - 1]++;
+        }
+        double squaredNorm = 0;
+        for (int i = 0; i < distinct; i++) {
+            squaredNorm += (double) counts[i] * counts[i];
+        }
+        return new TokenSketch(Arrays.copyOf(hashes, distinct), Arrays.copyOf(counts, distinct), Math.sqrt(squaredNorm));
+    }
+
+    /**
+     * Returns the number of distinct tokens.
+     */
+    public int getDistinctSize() {
+        return hashes.length;
+    }
+
+    public boolean isEmpty() {
+        return hashes.length == 0;
+    }
+
+    /**
+     * Counts the distinct tokens that are contained in both sketches.<br>
+     * The scan stops as soon as the given minimum size cannot be reached anymore, in which case a smaller number is
+     * returned.
+     */
+    public int intersectionSize(TokenSketch other, int minSize) {
+        final int[] left = hashes;
+        final int[] right = other.hashes;
+        int leftIndex = 0;
+        int rightIndex = 0;
+        int size = 0;
+        while (leftIndex < left.length && rightIndex < right.length) {
+            if (size + Math.min(left.length - leftIndex, right.length - rightIndex) < minSize) {
+                return size;
+            }
+            if (left[leftIndex] < right[rightIndex]) {
+                leftIndex++;
+            } else if (left[leftIndex] > right[rightIndex]) {
+                rightIndex++;
+            } else {
+                size++;
+                leftIndex++;
+                rightIndex++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Computes the dot product of the token counts.
+     */
+    public long dotProduct(TokenSketch other) {
+        return dotProduct(other, 0);
+    }
+
+    /**
+     * Computes the dot product of the token counts.<br>
+     * The scan stops as soon as the given minimum product cannot be reached anymore, in which case a smaller product is
+     * returned. By the Cauchy-Schwarz inequality, the remaining tokens add at most the product of their norms.
+     */
+    public long dotProduct(TokenSketch other, long minProduct) {
+        final int[] left = hashes;
+        final int[] right = other.hashes;
+        int leftIndex = 0;
+        int rightIndex = 0;
+        long product = 0;
+        long leftSquaredNorm = getSquaredNorm();
+        long rightSquaredNorm = other.getSquaredNorm();
+        while (leftIndex < left.length && rightIndex < right.length) {
+            final long missing = minProduct - product;
+            if (missing > 0 && (double) missing * missing > (double) leftSquaredNorm * rightSquaredNorm) {
+                return product;
+            }
+            if (left[leftIndex] < right[rightIndex]) {
+                leftSquaredNorm -= (long) counts[leftIndex] * counts[leftIndex];
+                leftIndex++;
+            } else if (left[leftIndex] > right[rightIndex]) {
+                rightSquaredNorm -= (long) other.counts[rightIndex] * other.counts[rightIndex];
+                rightIndex++;
+            } else {
+                final long leftCount = counts[leftIndex++];
+                final long rightCount = other.counts[rightIndex++];
+                product += leftCount * rightCount;
+                leftSquaredNorm -= leftCount * leftCount;
+                rightSquaredNorm -= rightCount * rightCount;
+            }
+        }
+        return product;
+    }
+
+    private long getSquaredNorm() {
+        // the squared norm is a sum of squared counts and thus exactly representable
+        return Math.round(norm * norm);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection;
+
+import com.bakdata.deduplication.candidate_selection.online.OnlineCandidateSelection;
+import com.bakdata.deduplication.candidate_selection.online.OnlineMetaBlocking;
+import com.bakdata.deduplication.candidate_selection.online.OnlineSortedNeighborhoodMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetaBlockingTest {
+    private static final List<List<Candidate<String>>> BLOCKS = List.of(
+            List.of(new Candidate<>("a", "b"), new Candidate<>("a", "c"), new Candidate<>("a", "d")),
+            List.of(new Candidate<>("b", "a"), new Candidate<>("c", "d")),
+            List.of(new Candidate<>("a", "b")));
+
+    @Test
+    void shouldKeepEdgesAboveMeanOfEitherRecord() {
+        final MetaBlocking metaBlocking = MetaBlocking.builder().build();
+
+        assertThat(metaBlocking.prune(BLOCKS)).containsExactly(new Candidate<>("a", "b"), new Candidate<>("a", "c"),
+                new Candidate<>("a", "d"), new Candidate<>("c", "d"));
+    }
+
+    @Test
+    void shouldKeepEdgesAboveMeanOfBothRecords() {
+        final MetaBlocking metaBlocking = MetaBlocking.builder().reciprocal(true).build();
+        assertThat(metaBlocking.prune(BLOCKS)).containsExactly(new Candidate<>("a", "b"), new Candidate<>("c", "d"));
+
+        final MetaBlocking jaccardMetaBlocking = MetaBlocking.builder()
+                .weightingScheme(MetaBlocking.WeightingScheme.JACCARD)
+                .reciprocal(true)
+                .build();
+        assertThat(jaccardMetaBlocking.prune(BLOCKS)).containsExactly(new Candidate<>("a", "b"), new Candidate<>("c", "d"));
+    }
+
+    @Test
+    void shouldPruneOnlineCandidates() {
+        final OnlineCandidateSelection<String> first = newRecord ->
+                List.of(new Candidate<>(newRecord, "a"), new Candidate<>(newRecord, "b"));
+        final OnlineCandidateSelection<String> second = newRecord -> List.of(new Candidate<>(newRecord, "a"));
+        final OnlineCandidateSelection<String> third = newRecord ->
+                List.of(new Candidate<>(newRecord, "a"), new Candidate<>(newRecord, "c"));
+        final OnlineMetaBlocking<String> metaBlocking = OnlineMetaBlocking.<String>builder()
+                .selection(first)
+                .selection(second)
+                .selection(third)
+                .build();
+
+        assertThat(metaBlocking.getCandidates("x")).containsExactly(new Candidate<>("x", "a"));
+    }
+
+    @Test
+    void shouldDistinguishEqualRecords() {
+        final String a = new String("a");
+        final String otherA = new String("a");
+        final List<List<Candidate<String>>> blocks = List.of(
+                List.of(new Candidate<>("x", a), new Candidate<>("x", "b")),
+                List.of(new Candidate<>("x", "b")),
+                List.of(new Candidate<>("x", otherA)));
+        final MetaBlocking metaBlocking = MetaBlocking.builder().reciprocal(true).build();
+
+        // both records equal to a share only one block with x, whereas b shares two blocks
+        assertThat(metaBlocking.prune(blocks)).containsExactly(new Candidate<>("x", "b"));
+    }
+
+    @Test
+    void shouldCountPassesAsSeparateBlocks() {
+        final OnlineSortedNeighborhoodMethod<String> sortedNeighborhood = OnlineSortedNeighborhoodMethod.<String>builder()
+                .sortingKey(new SortingKey<>("name", record -> record), 2)
+                .sortingKey(new SortingKey<>("reversed", record -> new StringBuilder(record).reverse().toString()), 2)
+                .build();
+        sortedNeighborhood.bulkLoad(List.of("ab", "ac", "zb"));
+        final OnlineMetaBlocking<String> metaBlocking = OnlineMetaBlocking.<String>builder()
+                .selection(sortedNeighborhood)
+                .build();
+
+        // ac is a neighbor in both passes, whereas zb is only a neighbor when sorting by name
+        assertThat(metaBlocking.getCandidates("ad")).containsExactly(new Candidate<>("ad", "ac"));
+    }
+}
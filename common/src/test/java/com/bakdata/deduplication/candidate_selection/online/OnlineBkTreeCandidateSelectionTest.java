@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.Distance;
+import com.bakdata.deduplication.similarity.SimilarityException;
+import com.bakdata.deduplication.similarity.SimilarityMeasure;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class OnlineBkTreeCandidateSelectionTest {
+    private static final List<String> NAMES = List.of("schmidt", "schmitt", "schmid", "schmied", "smith", "smyth",
+            "mueller", "muller", "miller", "meier", "meyer", "maier", "mayer", "schneider", "schneyder", "fischer");
+
+    private static OnlineBkTreeCandidateSelection<String, String> createSelection(Distance<? super String> distance) {
+        return OnlineBkTreeCandidateSelection.<String, String>builder()
+                .keyExtractor(Function.identity())
+                .distance(distance)
+                .radius(1)
+                .build();
+    }
+
+    private static List<String> findNaively(List<String> names, String key, int radius) {
+        final Distance<String> distance = Distance.levenshtein();
+        return names.stream()
+                .filter(name -> distance.getDistance(key, name) <= radius)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldFindRecordsWithinRadius() {
+        final OnlineBkTreeCandidateSelection<String, String> selection = createSelection(Distance.levenshtein());
+        NAMES.forEach(selection::add);
+
+        for (int radius = 0; radius <= 4; radius++) {
+            for (String key : List.of("schmidt", "muler", "mayr", "smith", "unknown")) {
+                assertThat(selection.getRecords(key, radius))
+                        .containsExactlyInAnyOrderElementsOf(findNaively(NAMES, key, radius));
+            }
+        }
+        assertThat(selection.getCandidates("meir"))
+                .extracting(Candidate::getOldRecord)
+                .containsExactlyInAnyOrderElementsOf(findNaively(NAMES, "meir", 1));
+        // the new record has been added to the index
+        assertThat(selection.getRecords("meir", 0)).containsExactly("meir");
+    }
+
+    @Test
+    void shouldBulkLoadSameTreeAsSingleInserts() {
+        final OnlineBkTreeCandidateSelection<String, String> bulkLoaded = createSelection(Distance.levenshtein());
+        bulkLoaded.bulkLoad(NAMES);
+        final OnlineBkTreeCandidateSelection<String, String> inserted = createSelection(Distance.levenshtein());
+        NAMES.forEach(inserted::add);
+
+        for (String key : NAMES) {
+            assertThat(bulkLoaded.getRecords(key, 2))
+                    .containsExactlyInAnyOrderElementsOf(inserted.getRecords(key, 2))
+                    .containsExactlyInAnyOrderElementsOf(findNaively(NAMES, key, 2));
+        }
+    }
+
+    @Test
+    void shouldBulkLoadDegenerateTree() {
+        // every key has the same distance to all other keys, such that the tree degenerates into a path
+        final OnlineBkTreeCandidateSelection<String, String> selection =
+                createSelection((left, right) -> left.equals(right) ? 0 : 1);
+        final List<String> keys = IntStream.range(0, 5_000).mapToObj(Integer::toString).collect(Collectors.toList());
+        selection.bulkLoad(keys);
+
+        assertThat(selection.getRecords("42", 0)).containsExactly("42");
+        assertThat(selection.getRecords("42", 1)).hasSameSizeAs(keys);
+    }
+
+    @Test
+    void shouldInsertWhenBulkLoadingNonEmptyTree() {
+        final OnlineBkTreeCandidateSelection<String, String> selection = createSelection(Distance.levenshtein());
+        selection.add("schmidt");
+        final List<String> names = NAMES.subList(1, NAMES.size());
+        selection.bulkLoad(names);
+
+        for (String key : NAMES) {
+            assertThat(selection.getRecords(key, 1))
+                    .containsExactlyInAnyOrderElementsOf(findNaively(NAMES, key, 1));
+        }
+    }
+
+    @Test
+    void shouldKeepNodesOfRemovedRecords() {
+        final OnlineBkTreeCandidateSelection<String, String> selection = createSelection(Distance.levenshtein());
+        final String schmidt = new String("schmidt");
+        final String otherSchmidt = new String("schmidt");
+        selection.add(schmidt);
+        selection.add(otherSchmidt);
+        selection.add("schmitt");
+        selection.add("schmid");
+
+        selection.remove(schmidt);
+        assertThat(selection.getRecords("schmidt", 0)).containsExactly(otherSchmidt);
+        assertThat(selection.getRecords("schmidt", 0).get(0)).isSameAs(otherSchmidt);
+        selection.remove(otherSchmidt);
+        selection.remove("unknown");
+        // the root node still routes to its children
+        assertThat(selection.getRecords("schmidt", 1)).containsExactlyInAnyOrder("schmitt", "schmid");
+        assertThat(selection.getCandidates("schmitd"))
+                .extracting(Candidate::getOldRecord)
+                .containsExactlyInAnyOrder("schmitt", "schmid");
+        assertThat(selection.getRecords("schmidt", 2)).containsExactlyInAnyOrder("schmitt", "schmid", "schmitd");
+    }
+
+    @Test
+    void shouldSurfaceExceptionsOfSimilarityMeasure() {
+        final SimilarityMeasure<String> failingMeasure = (left, right, context) -> {
+            context.addException(new IllegalArgumentException(left));
+            return 0;
+        };
+        final OnlineBkTreeCandidateSelection<String, String> selection =
+                createSelection(Distance.of(failingMeasure, 10));
+        selection.add("schmidt");
+
+        assertThatExceptionOfType(SimilarityException.class)
+                .isThrownBy(() -> selection.getCandidates("schmitt"))
+                .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.similarity.CommonSimilarityMeasures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class OnlineFuzzyKeyCandidateSelectionTest {
+    private static OnlineFuzzyKeyCandidateSelection<String> createSelection(int maxDistance) {
+        return OnlineFuzzyKeyCandidateSelection.<String>builder()
+                .keyExtractor(Function.identity())
+                .maxDistance(maxDistance)
+                .build();
+    }
+
+    @Test
+    void shouldFindTyposInFirstCharacter() {
+        final OnlineFuzzyKeyCandidateSelection<String> selection = createSelection(1);
+        selection.bulkLoad(List.of("schmidt", "schmitt", "schmid", "mueller", "smith"));
+
+        assertThat(selection.getCandidates("chmidt"))
+                .extracting(Candidate::getOldRecord)
+                .containsExactly("schmidt");
+        // the new record has been added to the index
+        assertThat(selection.getRecords("chmidt")).contains("chmidt");
+    }
+
+    @Test
+    void shouldRespectMaxDistance() {
+        final OnlineFuzzyKeyCandidateSelection<String> selection = createSelection(2);
+        selection.bulkLoad(List.of("schmidt", "schmitt", "schmid", "mueller", "smith"));
+
+        assertThat(selection.getRecords("schmidt")).containsExactlyInAnyOrder("schmidt", "schmitt", "schmid");
+        assertThat(selection.getRecords("muller")).containsExactly("mueller");
+        assertThat(selection.getRecords("")).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveRecords() {
+        final OnlineFuzzyKeyCandidateSelection<String> selection = createSelection(1);
+        selection.add("schmidt");
+        selection.add("schmid");
+        selection.remove("schmid");
+
+        assertThat(selection.getRecords("schmid")).containsExactly("schmidt");
+    }
+
+    private static String randomKey(Random random) {
+        // a small alphabet and short keys, such that many keys are close and some are shorter than the distance
+        final char[] key = new char[random.nextInt(7)];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = "abc".charAt(random.nextInt(3));
+        }
+        return new String(key);
+    }
+
+    private static List<String> findNaively(List<String> keys, String key, int maxDistance) {
+        return keys.stream()
+                .filter(other -> CommonSimilarityMeasures.Levensthein.distance(key, other, maxDistance,
+                        new int[key.length() + other.length() + 2], new int[key.length() + other.length() + 2]) >= 0)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldFindSameRecordsAsLevenshtein() {
+        final Random random = new Random(42);
+        final List<String> keys = new ArrayList<>(List.of("", "a"));
+        for (int i = 0; i < 300; i++) {
+            keys.add(randomKey(random));
+        }
+        for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+            final OnlineFuzzyKeyCandidateSelection<String> selection = createSelection(maxDistance);
+            selection.bulkLoad(keys.subList(0, keys.size() / 2));
+            keys.subList(keys.size() / 2, keys.size()).forEach(selection::add);
+
+            final List<String> queries = new ArrayList<>(List.of("", "a", "abcabcabc"));
+            for (int i = 0; i < 200; i++) {
+                queries.add(randomKey(random));
+            }
+            for (String query : queries) {
+                assertThat(selection.getRecords(query))
+                        .as("%s within %d", query, maxDistance)
+                        .containsExactlyInAnyOrderElementsOf(findNaively(keys, query, maxDistance));
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectNegativeMaxDistance() {
+        assertThatIllegalArgumentException().isThrownBy(() -> createSelection(-1));
+    }
+}
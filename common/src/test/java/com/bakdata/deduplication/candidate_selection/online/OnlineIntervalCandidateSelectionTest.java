@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import lombok.Value;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class OnlineIntervalCandidateSelectionTest {
+    private static OnlineIntervalCandidateSelection<Entry> createSelection(long maxDifference) {
+        return OnlineIntervalCandidateSelection.<Entry>builder()
+                .keyExtractor(Entry::getKey)
+                .maxDifference(maxDifference)
+                .build();
+    }
+
+    private static List<Entry> findNaively(List<Entry> entries, long fromKey, long toKey) {
+        return entries.stream()
+                .filter(entry -> fromKey <= entry.getKey() && entry.getKey() <= toKey)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldMergeBuffer() {
+        final OnlineIntervalCandidateSelection<Entry> selection = createSelection(3);
+        final Random random = new Random(42);
+        final List<Entry> indexed = new ArrayList<>();
+        for (int id = 0; id < 1000; id++) {
+            // exceeds the initial buffer several times
+            final Entry entry = new Entry(id, random.nextInt(500), null);
+            assertThat(selection.getCandidates(entry))
+                    .extracting(Candidate::getOldRecord)
+                    .containsExactlyInAnyOrderElementsOf(findNaively(indexed, entry.getKey() - 3, entry.getKey() + 3));
+            indexed.add(entry);
+        }
+        assertThat(selection.getRecords(null, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyInAnyOrderElementsOf(indexed);
+        assertThat(selection.getRecords(null, 100, 200))
+                .containsExactlyInAnyOrderElementsOf(findNaively(indexed, 100, 200));
+    }
+
+    @Test
+    void shouldCompactRemovedRecords() {
+        final OnlineIntervalCandidateSelection<Entry> selection = createSelection(0);
+        final List<Entry> entries = IntStream.range(0, 200)
+                .mapToObj(id -> new Entry(id, id / 2, null))
+                .collect(Collectors.toList());
+        selection.bulkLoad(entries);
+        final Entry buffered = new Entry(200, 10, null);
+        selection.add(buffered);
+
+        // an equal but distinct record is not removed
+        selection.remove(new Entry(0, 0, null));
+        assertThat(selection.getRecords(null, 0, 0)).hasSize(2);
+        assertThat(selection.getRecords(null, 0, 0).get(0)).isSameAs(entries.get(0));
+        selection.remove(buffered);
+        assertThat(selection.getRecords(null, 10, 10)).containsExactly(entries.get(20), entries.get(21));
+
+        // removed records stay in the array until more than half of it is removed, which then is compacted
+        final List<Entry> remaining = new ArrayList<>(entries);
+        for (int id = 0; id < 101; id++) {
+            selection.remove(remaining.remove(0));
+            assertThat(selection.getRecords(null, id / 2, id / 2 + 1))
+                    .containsExactlyElementsOf(findNaively(remaining, id / 2, id / 2 + 1));
+        }
+        assertThat(selection.getRecords(null, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(remaining);
+
+        // the compacted array is merged with new records
+        final List<Entry> added = IntStream.range(300, 400)
+                .mapToObj(id -> new Entry(id, id % 100, null))
+                .collect(Collectors.toList());
+        added.forEach(selection::add);
+        remaining.addAll(added);
+        assertThat(selection.getRecords(null, Long.MIN_VALUE, Long.MAX_VALUE))
+                .containsExactlyInAnyOrderElementsOf(remaining);
+        assertThat(selection.getRecords(null, 60, 60)).containsExactlyInAnyOrderElementsOf(findNaively(remaining, 60, 60));
+    }
+
+    @Test
+    void shouldRejectNegativeMaxDifference() {
+        assertThatIllegalArgumentException().isThrownBy(() -> createSelection(-1));
+    }
+
+    @Test
+    void shouldSaturateRangeBounds() {
+        final OnlineIntervalCandidateSelection<Entry> selection = createSelection(10);
+        final Entry min = new Entry(0, Long.MIN_VALUE, null);
+        final Entry nearMin = new Entry(1, Long.MIN_VALUE + 10, null);
+        final Entry zero = new Entry(2, 0, null);
+        final Entry max = new Entry(3, Long.MAX_VALUE, null);
+        selection.bulkLoad(List.of(min, nearMin, zero, max));
+
+        assertThat(selection.getCandidates(new Entry(4, Long.MIN_VALUE + 3, null)))
+                .extracting(Candidate::getOldRecord)
+                .containsExactly(min, nearMin);
+        assertThat(selection.getCandidates(new Entry(5, Long.MAX_VALUE - 3, null)))
+                .extracting(Candidate::getOldRecord)
+                .containsExactly(max);
+    }
+
+    @Test
+    void shouldRequireSameSecondaryKey() {
+        final OnlineIntervalCandidateSelection<Entry> selection = OnlineIntervalCandidateSelection.<Entry>builder()
+                .keyExtractor(Entry::getKey)
+                .maxDifference(1)
+                .secondaryKeyExtractor(Entry::getGroup)
+                .build();
+        final Entry berlin = new Entry(0, 10, "berlin");
+        final Entry potsdam = new Entry(1, 10, "potsdam");
+        final Entry unknown = new Entry(2, 10, null);
+        selection.bulkLoad(List.of(berlin, potsdam, unknown));
+
+        assertThat(selection.getCandidates(new Entry(3, 11, "berlin")))
+                .extracting(Candidate::getOldRecord)
+                .containsExactly(berlin);
+        assertThat(selection.getCandidates(new Entry(4, 10, null))).isEmpty();
+        assertThat(selection.getRecords("potsdam", 0, 100)).containsExactly(potsdam);
+        assertThat(selection.getRecords(null, 0, 100)).isEmpty();
+    }
+
+    @Test
+    void shouldCompareDates() {
+        final OnlineIntervalCandidateSelection<String> selection = OnlineIntervalCandidateSelection.<String>builder()
+                .dateKey(date -> date.isEmpty() ? null : LocalDate.parse(date))
+                .maxDifference(2)
+                .build();
+        selection.bulkLoad(List.of("1990-02-27", "1990-03-02", "1990-03-04", ""));
+
+        // 1990 is not a leap year
+        assertThat(selection.getCandidates("1990-02-28"))
+                .extracting(Candidate::getOldRecord)
+                .containsExactlyInAnyOrder("1990-02-27", "1990-03-02");
+        assertThat(selection.getCandidates("")).isEmpty();
+        assertThat(selection.getRecords(null, LocalDate.parse("1990-03-02").toEpochDay(), Long.MAX_VALUE))
+                .containsExactly("1990-03-02", "1990-03-04");
+    }
+
+    @Value
+    private static class Entry {
+        int id;
+        long key;
+        String group;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.SortingKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OnlineSortedNeighborhoodMethodTest {
+    private static OnlineSortedNeighborhoodMethod<String> createSelection() {
+        return OnlineSortedNeighborhoodMethod.<String>builder()
+                .sortingKey(new SortingKey<>("prefix", record -> record.substring(0, 2)), 4)
+                .sortingKey(new SortingKey<>("reversed", record -> new StringBuilder(record).reverse().toString()), 6)
+                .build();
+    }
+
+    private static String randomRecord(Random random) {
+        return IntStream.range(0, 4)
+                .mapToObj(i -> String.valueOf((char) ('a' + random.nextInt(5))))
+                .collect(Collectors.joining());
+    }
+
+    @Test
+    void shouldBulkLoadLikeSuccessiveInsertions() {
+        final Random random = new Random(42);
+        final List<String> records = IntStream.range(0, 500)
+                .mapToObj(i -> randomRecord(random))
+                .collect(Collectors.toList());
+
+        final OnlineSortedNeighborhoodMethod<String> bulkLoaded = createSelection();
+        bulkLoaded.bulkLoad(records);
+        final OnlineSortedNeighborhoodMethod<String> inserted = createSelection();
+        records.forEach(inserted::getCandidates);
+
+        for (int i = 0; i < 100; i++) {
+            final String newRecord = randomRecord(random);
+            assertThat(bulkLoaded.getCandidates(newRecord))
+                    .extracting(Candidate::getOldRecord)
+                    .containsExactlyElementsOf(inserted.getCandidates(newRecord).stream()
+                            .map(Candidate::getOldRecord)
+                            .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void shouldRemoveRecordsByIdentity() {
+        final OnlineSortedNeighborhoodMethod<String> selection = createSelection();
+        final String record = new String("abcd");
+        selection.bulkLoad(List.of(record, new String("abcd")));
+        selection.remove(record);
+
+        assertThat(selection.getCandidates("abce"))
+                .extracting(Candidate::getOldRecord)
+                .hasSize(1)
+                .allMatch(oldRecord -> oldRecord != record);
+    }
+}
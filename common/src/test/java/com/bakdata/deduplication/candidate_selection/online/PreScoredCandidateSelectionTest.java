@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.candidate_selection.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.SortingKey;
+import com.bakdata.deduplication.similarity.SimilarityException;
+import com.bakdata.deduplication.similarity.SimilarityMeasure;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class PreScoredCandidateSelectionTest {
+    private static final List<Integer> RECORDS = List.of(10, 20, 30, 40, 50, 60, 70, 80, 90);
+    private static final SimilarityMeasure<Integer> NUMERIC_DIFFERENCE =
+            (left, right, context) -> 1 - Math.abs(left - right) / 100f;
+
+    private static PreScoredCandidateSelection.PreScoredCandidateSelectionBuilder<Integer> createSelection(SimilarityMeasure<Integer> preScore) {
+        return PreScoredCandidateSelection.<Integer>builder()
+                .candidateSelection(OnlineSortedNeighborhoodMethod.<Integer>builder()
+                        .sortingKey(new SortingKey<>("constant", record -> 0), 100)
+                        .build())
+                .preScore(preScore);
+    }
+
+    private static List<Integer> getOldRecords(PreScoredCandidateSelection<Integer> selection, int newRecord) {
+        selection.bulkLoad(RECORDS);
+        return selection.getCandidates(newRecord).stream().map(Candidate::getOldRecord).collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldReturnTopCandidates() {
+        final PreScoredCandidateSelection<Integer> selection = createSelection(NUMERIC_DIFFERENCE).maxCandidates(3).build();
+        assertThat(getOldRecords(selection, 52)).containsExactlyInAnyOrder(40, 50, 60);
+    }
+
+    @Test
+    void shouldReturnAllCandidatesBelowLimit() {
+        final PreScoredCandidateSelection<Integer> selection = createSelection(NUMERIC_DIFFERENCE).maxCandidates(20).build();
+        assertThat(getOldRecords(selection, 52)).containsExactlyInAnyOrderElementsOf(RECORDS);
+    }
+
+    @Test
+    void shouldFilterByMinPreScore() {
+        final PreScoredCandidateSelection<Integer> selection = createSelection(NUMERIC_DIFFERENCE).minPreScore(.9f).build();
+        assertThat(getOldRecords(selection, 52)).containsExactlyInAnyOrder(50, 60);
+    }
+
+    @Test
+    void shouldRankUnknownPreScoresLast() {
+        final SimilarityMeasure<Integer> preScore = (left, right, context) ->
+                right % 20 == 0 ? SimilarityMeasure.unknown() : NUMERIC_DIFFERENCE.getSimilarity(left, right, context);
+        assertThat(getOldRecords(createSelection(preScore).maxCandidates(2).build(), 52))
+                .containsExactlyInAnyOrder(50, 70);
+        assertThat(getOldRecords(createSelection(preScore).minPreScore(0).build(), 52))
+                .containsExactlyInAnyOrder(10, 30, 50, 70, 90);
+    }
+
+    @Test
+    void shouldThrowPreScoreExceptions() {
+        final SimilarityMeasure<Integer> preScore = (left, right, context) -> {
+            if (right % 30 == 0) {
+                throw new IllegalArgumentException("Cannot compare " + right);
+            }
+            return NUMERIC_DIFFERENCE.getSimilarity(left, right, context);
+        };
+        final PreScoredCandidateSelection<Integer> selection = createSelection(preScore).build();
+
+        final Throwable exception = catchThrowable(() -> getOldRecords(selection, 52));
+        assertThat(exception)
+                .isInstanceOf(SimilarityException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(exception.getSuppressed()).hasSize(2);
+    }
+}
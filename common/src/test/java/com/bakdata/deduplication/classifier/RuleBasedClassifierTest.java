@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.classifier;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.similarity.RecordPreparation;
+import com.bakdata.deduplication.similarity.SimilarityContext;
+import com.bakdata.deduplication.similarity.SimilarityException;
+import com.bakdata.deduplication.similarity.SimilarityMeasure;
+import com.bakdata.deduplication.similarity.SimilarityTransformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class RuleBasedClassifierTest {
+    private static final SimilarityMeasure<String> EQUALITY = (left, right, context) -> left.equals(right) ? 1 : 0;
+
+    private static SimilarityTransformation<String, String> countingCode(AtomicInteger invocations) {
+        return (value, context) -> {
+            invocations.incrementAndGet();
+            return value.substring(0, 2).toUpperCase();
+        };
+    }
+
+    @Test
+    void shouldReusePreparedFeatures() {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> code = countingCode(invocations);
+        final RecordPreparation<List<String>> preparation = RecordPreparation.<List<String>>builder()
+                .feature(record -> record.get(0), code)
+                .build();
+        final SimilarityMeasure<List<String>> sameCode = EQUALITY.of(code).<List<String>>of(record -> record.get(0));
+        final RuleBasedClassifier<List<String>> classifier = RuleBasedClassifier.<List<String>>builder()
+                .positiveRule("same code", sameCode)
+                .transformationCache(preparation.getFeatureCache())
+                .build();
+
+        final List<String> smith = List.of("Smith");
+        final List<String> smyth = List.of("Smyth");
+        preparation.prepare(smith);
+        preparation.prepare(smyth);
+        assertThat(invocations).hasValue(2);
+
+        assertThat(classifier.classify(new Candidate<>(smith, smyth)).getResult())
+                .isEqualTo(Classification.ClassificationResult.DUPLICATE);
+        assertThat(classifier.classifyAll(smyth, List.of(smith)))
+                .extracting(Classification::getResult)
+                .containsExactly(Classification.ClassificationResult.DUPLICATE);
+        assertThat(invocations).hasValue(2);
+
+        // a classifier with another cache has to transform the values again
+        final RuleBasedClassifier<List<String>> uncachedClassifier = RuleBasedClassifier.<List<String>>builder()
+                .positiveRule("same code", sameCode)
+                .build();
+        uncachedClassifier.classify(new Candidate<>(smith, smyth));
+        assertThat(invocations).hasValue(4);
+    }
+
+    @Test
+    void shouldReuseClearedContext() {
+        final List<SimilarityContext> contexts = new ArrayList<>();
+        final RuleBasedClassifier<String> classifier = RuleBasedClassifier.<String>builder()
+                .positiveRule("same", (left, right, context) -> {
+                    contexts.add(context);
+                    if (left.isEmpty()) {
+                        throw new IllegalArgumentException("empty");
+                    }
+                    return EQUALITY.getSimilarity(left, right, context);
+                })
+                .build();
+
+        assertThatExceptionOfType(SimilarityException.class)
+                .isThrownBy(() -> classifier.classify(new Candidate<>("", "smith")))
+                .withCauseInstanceOf(IllegalArgumentException.class);
+        // the exception of the previous classification does not leak into the reused context
+        assertThat(classifier.classify(new Candidate<>("smith", "smith")).getResult())
+                .isEqualTo(Classification.ClassificationResult.DUPLICATE);
+        assertThat(classifier.classifyAll("smith", List.of("smith", "smyth")))
+                .extracting(Classification::getResult)
+                .containsExactly(Classification.ClassificationResult.DUPLICATE, RuleBasedClassifier.UNKNOWN.getResult());
+        assertThat(contexts).hasSize(4).allMatch(context -> context == contexts.get(0));
+        assertThat(contexts.get(0).hasExceptions()).isFalse();
+    }
+
+    @Test
+    void shouldUseFreshContextForNestedClassification() {
+        final List<SimilarityContext> contexts = new ArrayList<>();
+        final AtomicReference<RuleBasedClassifier<String>> classifier = new AtomicReference<>();
+        classifier.set(RuleBasedClassifier.<String>builder()
+                .positiveRule("nested", (left, right, context) -> {
+                    contexts.add(context);
+                    if (left.equals("outer")) {
+                        context.addException(new IllegalStateException("outer"));
+                        // the nested classification succeeds and must neither clear nor reuse the outer context
+                        classifier.get().classify(new Candidate<>("inner", "inner"));
+                    }
+                    return 1;
+                })
+                .build());
+
+        assertThatExceptionOfType(SimilarityException.class)
+                .isThrownBy(() -> classifier.get().classify(new Candidate<>("outer", "inner")))
+                .withCauseInstanceOf(IllegalStateException.class);
+        assertThat(contexts).hasSize(2);
+        assertThat(contexts.get(1)).isNotSameAs(contexts.get(0));
+    }
+
+    @Test
+    void shouldExcludeContextsFromEqualsAndToString() {
+        final RuleBasedClassifier.Rule<String> rule = new RuleBasedClassifier.Rule<>("same", EQUALITY);
+        final RuleBasedClassifier<String> classifier = RuleBasedClassifier.<String>builder().rule(rule).build();
+        final RuleBasedClassifier<String> otherClassifier = RuleBasedClassifier.<String>builder().rule(rule).build();
+        classifier.classify(new Candidate<>("smith", "smith"));
+
+        assertThat(classifier).isEqualTo(otherClassifier);
+        assertThat(classifier).hasSameHashCodeAs(otherClassifier);
+        assertThat(classifier.toString()).doesNotContain("contexts");
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.clustering;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.classifier.Classification;
+import com.bakdata.deduplication.classifier.ClassifiedCandidate;
+import com.bakdata.deduplication.classifier.Classifier;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusteringBulkLoadTest {
+    private static final List<String> RECORDS = List.of("a1", "b1", "a2", "c1", "a3", "b2");
+    private static final Classifier<String> SAME_PREFIX = candidate -> classify(candidate.getNewRecord().charAt(0) == candidate.getOldRecord().charAt(0));
+
+    private static Classification classify(boolean duplicate) {
+        return Classification.builder()
+                .result(duplicate ? Classification.ClassificationResult.DUPLICATE : Classification.ClassificationResult.NON_DUPLICATE)
+                .confidence(1)
+                .build();
+    }
+
+    private static TransitiveClosure<Long, String, String> transitiveClosure() {
+        return TransitiveClosure.<Long, String, String>builder()
+                .idExtractor(Function.identity())
+                .clusterIdGenerator(Cluster.longGenerator())
+                .build();
+    }
+
+    private static RefinedTransitiveClosure<Long, String, String> refinedTransitiveClosure() {
+        return RefinedTransitiveClosure.<Long, String, String>builder()
+                .refineCluster(RefineCluster.<Long, String>builder()
+                        .classifier(SAME_PREFIX)
+                        .clusterIdGenerator(Cluster.longGenerator())
+                        .build())
+                .idExtractor(Function.identity())
+                .build();
+    }
+
+
+    private static List<ClassifiedCandidate<String>> classifyAll(String newRecord, List<String> oldRecords) {
+        return oldRecords.stream()
+                .map(oldRecord -> new Candidate<>(newRecord, oldRecord))
+                .map(candidate -> new ClassifiedCandidate<>(candidate, SAME_PREFIX.classify(candidate)))
+                .collect(Collectors.toList());
+    }
+
+    private static Set<Set<String>> toElementSets(List<Cluster<Long, String>> clusters) {
+        return clusters.stream().map(cluster -> Set.copyOf(cluster.getElements())).collect(Collectors.toSet());
+    }
+
+    private static Optional<Set<String>> getElements(Clustering<Long, String> clustering, String record) {
+        return clustering.getCluster(record).map(cluster -> Set.copyOf(cluster.getElements()));
+    }
+
+    private static void assertBulkLoadLikeSuccessiveClustering(Supplier<? extends Clustering<Long, String>> clusteringSupplier) {
+        final Clustering<Long, String> bulkLoaded = clusteringSupplier.get();
+        bulkLoaded.bulkLoad(RECORDS, record -> record.charAt(0));
+
+        final Clustering<Long, String> clustered = clusteringSupplier.get();
+        for (int i = 1; i < RECORDS.size(); i++) {
+            clustered.cluster(classifyAll(RECORDS.get(i), RECORDS.subList(0, i)));
+        }
+
+        for (String record : RECORDS) {
+            assertThat(getElements(bulkLoaded, record)).isEqualTo(getElements(clustered, record));
+        }
+        assertThat(getElements(bulkLoaded, "c1")).isEmpty();
+
+        final List<ClassifiedCandidate<String>> classified = classifyAll("a4", RECORDS);
+        assertThat(toElementSets(bulkLoaded.cluster(classified)))
+                .isEqualTo(toElementSets(clustered.cluster(classified)))
+                .containsExactly(Set.of("a1", "a2", "a3", "a4"));
+        assertThat(getElements(bulkLoaded, "a1")).contains(Set.of("a1", "a2", "a3", "a4"));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> shouldBulkLoadLikeSuccessiveClustering() {
+        final Supplier<Clustering<Long, String>> consistentClustering = () -> ConsistentClustering.<Long, String, String>builder()
+                .clustering(refinedTransitiveClosure())
+                .idExtractor(Function.identity())
+                .build();
+        final Supplier<Clustering<Long, String>> parallelTransitiveClosure = () -> ParallelTransitiveClosure.<Long, String, String>builder()
+                .idExtractor(Function.identity())
+                .clusterIdGenerator(Cluster.longGenerator())
+                .build();
+        return Stream.of(
+                DynamicTest.dynamicTest("TransitiveClosure", () -> assertBulkLoadLikeSuccessiveClustering(ClusteringBulkLoadTest::transitiveClosure)),
+                DynamicTest.dynamicTest("RefinedTransitiveClosure", () -> assertBulkLoadLikeSuccessiveClustering(ClusteringBulkLoadTest::refinedTransitiveClosure)),
+                DynamicTest.dynamicTest("ConsistentClustering", () -> assertBulkLoadLikeSuccessiveClustering(consistentClustering)),
+                DynamicTest.dynamicTest("ParallelTransitiveClosure", () -> assertBulkLoadLikeSuccessiveClustering(parallelTransitiveClosure)));
+    }
+
+    @Test
+    void shouldNotModifyLoadedClustersOfRefinedTransitiveClosure() {
+        final RefinedTransitiveClosure<Long, String, String> clustering = refinedTransitiveClosure();
+        clustering.bulkLoad(RECORDS, record -> record.charAt(0));
+        final Cluster<Long, String> loadedCluster = clustering.getCluster("a1").orElseThrow();
+
+        // the transitive closure adds x1 to the loaded cluster, but the refinement splits it off again
+        final Candidate<String> candidate = new Candidate<>("x1", "a1");
+        clustering.cluster(List.of(new ClassifiedCandidate<>(candidate, classify(true))));
+
+        assertThat(loadedCluster.getElements()).containsExactly("a1", "a2", "a3");
+        assertThat(getElements(clustering, "a1")).contains(Set.of("a1", "a2", "a3"));
+        assertThat(new HashSet<>(clustering.getClosure().getCluster("a1").orElseThrow().getElements()))
+                .contains("x1");
+    }
+}
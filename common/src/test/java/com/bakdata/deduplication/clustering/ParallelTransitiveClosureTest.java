@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.clustering;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.classifier.Classification;
+import com.bakdata.deduplication.classifier.ClassifiedCandidate;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelTransitiveClosureTest {
+    private static final Classification DUPLICATE = Classification.builder()
+            .result(Classification.ClassificationResult.DUPLICATE)
+            .confidence(1)
+            .build();
+    private static final Classification NON_DUPLICATE = Classification.builder()
+            .result(Classification.ClassificationResult.NON_DUPLICATE)
+            .confidence(1)
+            .build();
+
+    private static ParallelTransitiveClosure<Long, Integer, Integer> createClosure() {
+        return ParallelTransitiveClosure.<Long, Integer, Integer>builder()
+                .idExtractor(Function.identity())
+                .clusterIdGenerator(Cluster.longGenerator())
+                .build();
+    }
+
+    private static Set<Set<Integer>> toElementSets(Iterable<Cluster<Long, Integer>> clusters) {
+        final Set<Set<Integer>> elementSets = new HashSet<>();
+        for (Cluster<Long, Integer> cluster : clusters) {
+            elementSets.add(Set.copyOf(cluster.getElements()));
+        }
+        return elementSets;
+    }
+
+    @Test
+    void testChain() {
+        final List<ClassifiedCandidate<Integer>> classified = List.of(
+                new ClassifiedCandidate<>(new Candidate<>(1, 2), DUPLICATE),
+                new ClassifiedCandidate<>(new Candidate<>(3, 4), DUPLICATE),
+                new ClassifiedCandidate<>(new Candidate<>(2, 3), DUPLICATE),
+                new ClassifiedCandidate<>(new Candidate<>(5, 6), DUPLICATE),
+                new ClassifiedCandidate<>(new Candidate<>(6, 7), NON_DUPLICATE));
+
+        final List<Cluster<Long, Integer>> clusters = createClosure().cluster(classified);
+
+        assertThat(toElementSets(clusters))
+                .containsExactlyInAnyOrder(Set.of(1, 2, 3, 4), Set.of(5, 6));
+        assertThat(clusters)
+                .extracting(Cluster::getId)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testEmpty() {
+        assertThat(createClosure().cluster(List.of()))
+                .isEmpty();
+    }
+
+    @Test
+    void testSameComponentsAsTransitiveClosure() {
+        final Random random = new Random(42);
+        final List<ClassifiedCandidate<Integer>> classified = IntStream.range(0, 10_000)
+                .mapToObj(i -> new Candidate<>(random.nextInt(20_000), random.nextInt(20_000)))
+                .map(candidate -> new ClassifiedCandidate<>(candidate, DUPLICATE))
+                .collect(Collectors.toList());
+
+        final TransitiveClosure<Long, Integer, Integer> transitiveClosure = TransitiveClosure.<Long, Integer, Integer>builder()
+                .idExtractor(Function.identity())
+                .clusterIdGenerator(Cluster.longGenerator())
+                .build();
+        transitiveClosure.cluster(classified);
+        // the transitive closure also returns intermediate clusters, so we compare with its final index
+        final Set<Set<Integer>> expected = toElementSets(new HashSet<>(transitiveClosure.getClusterIndex().values()));
+
+        assertThat(toElementSets(createClosure().cluster(classified)))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void testExtendAndMergePreviousClusters() {
+        final ParallelTransitiveClosure<Long, Integer, Integer> closure = createClosure();
+        final Cluster<Long, Integer> first = closure.cluster(List.of(new ClassifiedCandidate<>(new Candidate<>(1, 2), DUPLICATE))).get(0);
+
+        final Cluster<Long, Integer> extended = closure.cluster(List.of(new ClassifiedCandidate<>(new Candidate<>(3, 2), DUPLICATE))).get(0);
+        assertThat(extended.getId()).isEqualTo(first.getId());
+        assertThat(extended.getElements()).containsExactly(1, 2, 3);
+        assertThat(closure.cluster(List.of(new ClassifiedCandidate<>(new Candidate<>(1, 3), DUPLICATE))))
+                .containsExactly(extended);
+
+        final Cluster<Long, Integer> other = closure.cluster(List.of(new ClassifiedCandidate<>(new Candidate<>(5, 6), DUPLICATE))).get(0);
+        final Cluster<Long, Integer> merged = closure.cluster(List.of(new ClassifiedCandidate<>(new Candidate<>(5, 1), DUPLICATE))).get(0);
+        assertThat(merged.getId()).isNotIn(first.getId(), other.getId());
+        assertThat(merged.getElements()).containsExactlyInAnyOrder(1, 2, 3, 5, 6);
+        assertThat(closure.getCluster(6)).contains(merged);
+        assertThat(closure.getCluster(7)).isEmpty();
+    }
+
+    @Test
+    void testLoadClusters() {
+        final ParallelTransitiveClosure<Long, Integer, Integer> closure = createClosure();
+        closure.bulkLoad(List.of(1, 2, 3, 4, 5), record -> record % 2);
+        assertThat(closure.getCluster(3).map(Cluster::getElements)).contains(List.of(1, 3, 5));
+        assertThat(closure.getCluster(2).map(Cluster::getElements)).contains(List.of(2, 4));
+
+        final List<Cluster<Long, Integer>> clusters = closure.cluster(List.of(new ClassifiedCandidate<>(new Candidate<>(6, 4), DUPLICATE)));
+        assertThat(clusters)
+                .extracting(Cluster::getElements)
+                .containsExactly(List.of(2, 4, 6));
+    }
+
+    @Test
+    void testSameComponentsAsTransitiveClosureInBatches() {
+        final Random random = new Random(42);
+        final TransitiveClosure<Long, Integer, Integer> transitiveClosure = TransitiveClosure.<Long, Integer, Integer>builder()
+                .idExtractor(Function.identity())
+                .clusterIdGenerator(Cluster.longGenerator())
+                .build();
+        final ParallelTransitiveClosure<Long, Integer, Integer> closure = createClosure();
+        for (int batch = 0; batch < 10; batch++) {
+            final List<ClassifiedCandidate<Integer>> classified = IntStream.range(0, 1_000)
+                    .mapToObj(i -> new Candidate<>(random.nextInt(5_000), random.nextInt(5_000)))
+                    .map(candidate -> new ClassifiedCandidate<>(candidate, DUPLICATE))
+                    .collect(Collectors.toList());
+            transitiveClosure.cluster(classified);
+            closure.cluster(classified);
+
+            assertThat(toElementSets(new HashSet<>(closure.getClusterIndex().values())))
+                    .isEqualTo(toElementSets(new HashSet<>(transitiveClosure.getClusterIndex().values())));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.deduplication.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.online.OnlineCandidateSelection;
+import com.bakdata.deduplication.clustering.Cluster;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FusedRepresentativesTest {
+    private static Cluster<Long, String> cluster(long id, String... elements) {
+        return new Cluster<>(id, new ArrayList<>(List.of(elements)));
+    }
+
+    @Test
+    void shouldReplaceRepresentativeWithNewerOne() {
+        final IndexedRecords selection = new IndexedRecords("a1", "a2", "b1");
+        final FusedRepresentatives<String> representatives = new FusedRepresentatives<>();
+        representatives.replace(cluster(1, "a1", "a2"), "A", selection);
+        assertThat(selection.records).containsExactly("b1", "A");
+
+        selection.add("a3");
+        representatives.replace(cluster(1, "a1", "a2", "a3"), "A'", selection);
+        assertThat(selection.records).containsExactly("b1", "A'");
+        assertThat(representatives.getMember("A'")).isSameAs("a1");
+        assertThat(representatives.getMember("A")).isSameAs("A");
+        assertThat(representatives.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMergeClustersWithRepresentatives() {
+        final IndexedRecords selection = new IndexedRecords("a1", "a2", "b1", "b2");
+        final FusedRepresentatives<String> representatives = new FusedRepresentatives<>();
+        representatives.replace(cluster(1, "a1", "a2"), "A", selection);
+        representatives.replace(cluster(2, "b1", "b2"), "B", selection);
+        assertThat(selection.records).containsExactly("A", "B");
+        assertThat(representatives.size()).isEqualTo(2);
+
+        selection.add("c1");
+        representatives.replace(cluster(3, "c1", "b1", "b2", "a1", "a2"), "ABC", selection);
+        assertThat(selection.records).containsExactly("ABC");
+        assertThat(representatives.getMember("ABC")).isSameAs("c1");
+        assertThat(representatives.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMapCandidatesBackToMembers() {
+        final IndexedRecords selection = new IndexedRecords("a1", "a2");
+        final FusedRepresentatives<String> representatives = new FusedRepresentatives<>();
+        representatives.replace(cluster(1, "a1", "a2"), "A", selection);
+
+        assertThat(representatives.toMemberCandidate(new Candidate<>("a3", "A")))
+                .isEqualTo(new Candidate<>("a3", "a1"));
+        final Candidate<String> candidate = new Candidate<>("a3", "b1");
+        assertThat(representatives.toMemberCandidate(candidate)).isSameAs(candidate);
+    }
+
+    private static class IndexedRecords implements OnlineCandidateSelection<String> {
+        private final List<String> records;
+
+        IndexedRecords(String... records) {
+            this.records = new ArrayList<>(List.of(records));
+        }
+
+        @Override
+        public List<Candidate<String>> getCandidates(String newRecord) {
+            final List<Candidate<String>> candidates = records.stream()
+                    .map(oldRecord -> new Candidate<>(newRecord, oldRecord))
+                    .collect(Collectors.toList());
+            records.add(newRecord);
+            return candidates;
+        }
+
+        @Override
+        public void add(String record) {
+            records.add(record);
+        }
+
+        @Override
+        public void remove(String record) {
+            records.removeIf(indexedRecord -> indexedRecord == record);
+        }
+
+        @Override
+        public boolean supportsRemoval() {
+            return true;
+        }
+    }
+}
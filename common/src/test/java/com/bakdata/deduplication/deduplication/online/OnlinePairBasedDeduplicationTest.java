@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.deduplication.online;
+
+import com.bakdata.deduplication.candidate_selection.SortingKey;
+import com.bakdata.deduplication.candidate_selection.online.OnlineSortedNeighborhoodMethod;
+import com.bakdata.deduplication.classifier.Classification;
+import com.bakdata.deduplication.classifier.Classifier;
+import com.bakdata.deduplication.clustering.Cluster;
+import com.bakdata.deduplication.clustering.ParallelTransitiveClosure;
+import com.bakdata.deduplication.clustering.TransitiveClosure;
+import com.bakdata.deduplication.fusion.FusedValue;
+import com.bakdata.deduplication.fusion.Fusion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OnlinePairBasedDeduplicationTest {
+    private static final List<String> RECORDS = List.of("a1", "b1", "a2", "c1", "a3", "b2");
+    private static final Classifier<String> SAME_PREFIX = candidate -> Classification.builder()
+            .result(candidate.getNewRecord().charAt(0) == candidate.getOldRecord().charAt(0) ?
+                    Classification.ClassificationResult.DUPLICATE : Classification.ClassificationResult.NON_DUPLICATE)
+            .confidence(1)
+            .build();
+    private static final Fusion<String> JOIN_SORTED = cluster -> new FusedValue<>(
+            cluster.getElements().stream().sorted().collect(Collectors.joining("|")), cluster, List.of());
+
+    private static OnlinePairBasedDeduplication<String> createDeduplication() {
+        return OnlinePairBasedDeduplication.<String>builder()
+                .candidateSelection(OnlineSortedNeighborhoodMethod.<String>builder()
+                        .sortingKey(new SortingKey<>("record", Function.identity()))
+                        .build())
+                .classifier(SAME_PREFIX)
+                .clustering(TransitiveClosure.<Long, String, String>builder()
+                        .idExtractor(Function.identity())
+                        .clusterIdGenerator(Cluster.longGenerator())
+                        .build())
+                .fusion(JOIN_SORTED)
+                .hardFusionHandler(Optional::of)
+                .build();
+    }
+
+    @Test
+    void shouldBulkLoadLikeSuccessiveDeduplication() {
+        final OnlinePairBasedDeduplication<String> bulkLoaded = createDeduplication();
+        bulkLoaded.bulkLoad(RECORDS, record -> record.charAt(0));
+        final OnlinePairBasedDeduplication<String> deduplicated = createDeduplication();
+        RECORDS.forEach(deduplicated::deduplicate);
+
+        for (String newRecord : List.of("a4", "b3", "c2", "d1")) {
+            assertThat(bulkLoaded.deduplicate(newRecord)).isEqualTo(deduplicated.deduplicate(newRecord));
+        }
+        assertThat(bulkLoaded.deduplicate("a5")).isEqualTo("a1|a2|a3|a4|a5");
+        assertThat(bulkLoaded.deduplicate("c3")).isEqualTo("c1|c2|c3");
+        assertThat(bulkLoaded.deduplicate("d2")).isEqualTo("d1|d2");
+    }
+
+    private static OnlinePairBasedDeduplication<String> createPrunedDeduplication(Classifier<String> classifier) {
+        return OnlinePairBasedDeduplication.<String>builder()
+                .candidateSelection(OnlineSortedNeighborhoodMethod.<String>builder()
+                        .sortingKey(new SortingKey<>("record", Function.identity()), 20)
+                        .build())
+                .classifier(classifier)
+                .clustering(ParallelTransitiveClosure.<Long, String, String>builder()
+                        .idExtractor(Function.identity())
+                        .clusterIdGenerator(Cluster.longGenerator())
+                        .build())
+                .fusion(JOIN_SORTED)
+                .hardFusionHandler(Optional::of)
+                .clusterPruning(true)
+                .maxClusterRepresentatives(2)
+                .build();
+    }
+
+    private static Classifier<String> countingClassifier(float confidence, AtomicInteger comparisons) {
+        return candidate -> {
+            comparisons.incrementAndGet();
+            return Classification.builder()
+                    .result(SAME_PREFIX.classify(candidate).getResult())
+                    .confidence(confidence)
+                    .build();
+        };
+    }
+
+    @Test
+    void shouldClassifyAtMostMaxClusterRepresentatives() {
+        final AtomicInteger comparisons = new AtomicInteger();
+        final OnlinePairBasedDeduplication<String> deduplication = createPrunedDeduplication(countingClassifier(.5f, comparisons));
+        deduplication.bulkLoad(List.of("a1", "a2", "a3", "a4", "b1", "c1"), record -> record.charAt(0));
+
+        assertThat(deduplication.deduplicate("a5")).isEqualTo("a1|a2|a3|a4|a5");
+        // two representatives of cluster a, and the unclustered records b1 and c1
+        assertThat(comparisons).hasValue(4);
+    }
+
+    @Test
+    void shouldStopClassifyingClusterAfterConfidentDuplicate() {
+        final AtomicInteger comparisons = new AtomicInteger();
+        final OnlinePairBasedDeduplication<String> deduplication = createPrunedDeduplication(countingClassifier(1, comparisons));
+        deduplication.bulkLoad(List.of("a1", "a2", "a3", "a4", "c1"), record -> record.charAt(0));
+
+        assertThat(deduplication.deduplicate("a5")).isEqualTo("a1|a2|a3|a4|a5");
+        // one member of cluster a, and the unclustered record c1
+        assertThat(comparisons).hasValue(2);
+    }
+
+    @Test
+    void shouldClassifyAllCandidatesWithoutClusters() {
+        final AtomicInteger comparisons = new AtomicInteger();
+        final OnlinePairBasedDeduplication<String> deduplication = createPrunedDeduplication(countingClassifier(1, comparisons));
+        deduplication.bulkLoad(List.of("a1", "a2", "a3", "a4"), record -> record);
+
+        assertThat(deduplication.deduplicate("a5")).isEqualTo("a1|a2|a3|a4|a5");
+        assertThat(comparisons).hasValue(4);
+    }
+
+    @Test
+    void shouldCompareWithFusedRepresentatives() {
+        final AtomicInteger comparisons = new AtomicInteger();
+        final OnlinePairBasedDeduplication<String> deduplication = OnlinePairBasedDeduplication.<String>builder()
+                .candidateSelection(OnlineSortedNeighborhoodMethod.<String>builder()
+                        .sortingKey(new SortingKey<>("prefix", record -> record.charAt(0)))
+                        .build())
+                .classifier(countingClassifier(1, comparisons))
+                .clustering(TransitiveClosure.<Long, String, String>builder()
+                        .idExtractor(Function.identity())
+                        .clusterIdGenerator(Cluster.longGenerator())
+                        .build())
+                .fusion(JOIN_SORTED)
+                .hardFusionHandler(Optional::of)
+                .fusedRepresentatives(true)
+                .build();
+
+        assertThat(deduplication.deduplicate("a1")).isEqualTo("a1");
+        assertThat(deduplication.deduplicate("a2")).isEqualTo("a1|a2");
+        assertThat(deduplication.deduplicate("a3")).isEqualTo("a1|a2|a3");
+        // each record has only been compared with the current representative of cluster a
+        assertThat(deduplication.deduplicate("a4")).isEqualTo("a1|a2|a3|a4");
+        assertThat(comparisons).hasValue(3);
+    }
+
+    @Test
+    void shouldRequireRemovalForFusedRepresentatives() {
+        final OnlinePairBasedDeduplication<String> deduplication = OnlinePairBasedDeduplication.<String>builder()
+                .candidateSelection(newRecord -> List.of())
+                .classifier(SAME_PREFIX)
+                .clustering(TransitiveClosure.<Long, String, String>builder()
+                        .idExtractor(Function.identity())
+                        .clusterIdGenerator(Cluster.longGenerator())
+                        .build())
+                .fusion(JOIN_SORTED)
+                .fusedRepresentatives(true)
+                .build();
+
+        assertThatThrownBy(() -> deduplication.deduplicate("a1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
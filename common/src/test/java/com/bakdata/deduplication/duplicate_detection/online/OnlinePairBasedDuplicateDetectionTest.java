@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.duplicate_detection.online;
+
+import com.bakdata.deduplication.candidate_selection.SortingKey;
+import com.bakdata.deduplication.candidate_selection.online.OnlineSortedNeighborhoodMethod;
+import com.bakdata.deduplication.classifier.Classification;
+import com.bakdata.deduplication.classifier.Classifier;
+import com.bakdata.deduplication.clustering.Cluster;
+import com.bakdata.deduplication.clustering.TransitiveClosure;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OnlinePairBasedDuplicateDetectionTest {
+    private static final List<String> RECORDS = List.of("a1", "b1", "a2", "c1", "a3", "b2");
+    private static final Classifier<String> SAME_PREFIX = candidate -> Classification.builder()
+            .result(candidate.getNewRecord().charAt(0) == candidate.getOldRecord().charAt(0) ?
+                    Classification.ClassificationResult.DUPLICATE : Classification.ClassificationResult.NON_DUPLICATE)
+            .confidence(1)
+            .build();
+
+    private static OnlinePairBasedDuplicateDetection<Long, String> createDuplicateDetection() {
+        return OnlinePairBasedDuplicateDetection.<Long, String>builder()
+                .candidateSelection(OnlineSortedNeighborhoodMethod.<String>builder()
+                        .sortingKey(new SortingKey<>("record", Function.identity()))
+                        .build())
+                .classifier(SAME_PREFIX)
+                .clustering(TransitiveClosure.<Long, String, String>builder()
+                        .idExtractor(Function.identity())
+                        .clusterIdGenerator(Cluster.longGenerator())
+                        .build())
+                .build();
+    }
+
+    private static Set<Set<String>> toElementSets(List<Cluster<Long, String>> clusters) {
+        return clusters.stream().map(cluster -> Set.copyOf(cluster.getElements())).collect(Collectors.toSet());
+    }
+
+    @Test
+    void shouldBulkLoadLikeSuccessiveDuplicateDetection() {
+        final OnlinePairBasedDuplicateDetection<Long, String> bulkLoaded = createDuplicateDetection();
+        bulkLoaded.bulkLoad(RECORDS, record -> record.charAt(0));
+        final OnlinePairBasedDuplicateDetection<Long, String> detected = createDuplicateDetection();
+        RECORDS.forEach(detected::deduplicate);
+
+        for (String newRecord : List.of("a4", "b3", "c2", "d1")) {
+            assertThat(toElementSets(bulkLoaded.deduplicate(newRecord)))
+                    .isEqualTo(toElementSets(detected.deduplicate(newRecord)));
+        }
+        assertThat(toElementSets(bulkLoaded.deduplicate("a5")))
+                .containsExactly(Set.of("a1", "a2", "a3", "a4", "a5"));
+    }
+}
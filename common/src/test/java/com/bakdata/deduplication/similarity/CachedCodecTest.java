@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.apache.commons.codec.language.ColognePhonetic;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedCodecTest {
+    private static final List<String> NAMES = List.of("Müller", "Mueller", "Schmidt", "Schmitt", "Meyer", "Maier");
+
+    @Test
+    void shouldEncodeLikeEncoder() throws Exception {
+        final ColognePhonetic encoder = new ColognePhonetic();
+        final CachedCodec codec = CommonSimilarityMeasures.cachedCodec(encoder, 100);
+        final SimilarityContext context = new SimilarityContext();
+        for (int i = 0; i < 2; i++) {
+            for (String name : NAMES) {
+                assertThat(codec.transform(name, context)).isEqualTo(encoder.encode(name));
+            }
+        }
+        assertThat(codec.getSize()).isEqualTo(NAMES.size());
+        assertThat(codec.getStats().hitCount()).isEqualTo(NAMES.size());
+        assertThat(codec.getHitRate()).isEqualTo(.5);
+    }
+
+    @Test
+    void shouldBoundCache() throws Exception {
+        final CachedCodec codec = CommonSimilarityMeasures.cachedCodec(new ColognePhonetic(), 2);
+        final SimilarityContext context = new SimilarityContext();
+        for (String name : NAMES) {
+            codec.transform(name, context);
+        }
+        assertThat(codec.getSize()).isLessThanOrEqualTo(2);
+
+        codec.invalidateAll();
+        assertThat(codec.getSize()).isZero();
+    }
+
+    @Test
+    void shouldNotShareCaches() throws Exception {
+        final CachedCodec codec = CommonSimilarityMeasures.cachedCodec(new ColognePhonetic(), 100);
+        final CachedCodec otherCodec = CommonSimilarityMeasures.cachedCodec(new ColognePhonetic(), 100);
+        codec.transform("Müller", new SimilarityContext());
+
+        assertThat(otherCodec.getSize()).isZero();
+        // the phonetic factories do not cache by default
+        assertThat(CommonSimilarityMeasures.colognePhonetic()).isNotInstanceOf(CachedCodec.class);
+        assertThat(CommonSimilarityMeasures.beiderMorse()).isNotInstanceOf(CachedCodec.class);
+    }
+}
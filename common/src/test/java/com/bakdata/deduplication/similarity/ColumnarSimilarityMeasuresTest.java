@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class ColumnarSimilarityMeasuresTest {
+    private static final List<String> NAMES = Arrays.asList("Meier", "Meyer", "Maier", "Müller", "Mueller", "Schmidt",
+            "Schmitt", "Hans-Peter", "Hanspeter", "Peter", null);
+    private static final ColumnarStrings COLUMN = ColumnarStrings.of(NAMES);
+
+    private static void assertSameSimilarities(ColumnarSimilarityMeasure columnarMeasure,
+                                               SimilarityMeasure<String> expectedMeasure) {
+        final SimilarityContext context = new SimilarityContext();
+        final float[] similarities = new float[COLUMN.size()];
+        for (int left = 0; left < COLUMN.size(); left++) {
+            columnarMeasure.getSimilarities(COLUMN.getRow(left), COLUMN.getRows(), similarities, context);
+            for (int right = 0; right < COLUMN.size(); right++) {
+                if (NAMES.get(left) == null || NAMES.get(right) == null) {
+                    assertThat(similarities[right]).isNaN();
+                } else {
+                    assertThat(similarities[right])
+                            .as("%s vs %s", NAMES.get(left), NAMES.get(right))
+                            .isCloseTo(expectedMeasure.getSimilarity(NAMES.get(left), NAMES.get(right), context),
+                                    offset(1e-6f));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldComputeLevenshtein() {
+        assertSameSimilarities(ColumnarSimilarityMeasures.levenshtein(), CommonSimilarityMeasures.levenshtein());
+        assertSameSimilarities((ColumnarSimilarityMeasure) ColumnarSimilarityMeasures.levenshtein().cutoff(.75f),
+                CommonSimilarityMeasures.<String>levenshtein().cutoff(.75f));
+    }
+
+    @Test
+    void shouldComputeQGramJaccard() {
+        final SimilarityMeasure<String> expected = CommonSimilarityMeasures.sketchJaccard().of(CommonSimilarityMeasures.ngramSketch(2));
+        assertSameSimilarities(ColumnarSimilarityMeasures.qGramJaccard(2), expected);
+    }
+
+    @Test
+    void shouldComputeHammingAndEquality() {
+        final ColumnarStrings column = ColumnarStrings.of(List.of("Meier", "Meyer", "Mei", "Meier"));
+        final int[] leftRows = {0, 0, 0};
+        final int[] rightRows = {1, 2, 3};
+        final float[] similarities = new float[3];
+        final SimilarityContext context = new SimilarityContext();
+
+        ColumnarSimilarityMeasures.hamming().getSimilarities(column, leftRows, column, rightRows, similarities, context);
+        assertThat(similarities).containsExactly(.8f, .6f, 1f);
+
+        ColumnarSimilarityMeasures.equality().getSimilarities(column, leftRows, column, rightRows, similarities, context);
+        assertThat(similarities).containsExactly(0f, 0f, 1f);
+    }
+
+    @Test
+    void shouldStoreRowsBackToBack() {
+        final List<String> values = Arrays.asList("Meier", "", null, "Hans-Peter", "M");
+        final ColumnarStrings column = ColumnarStrings.of(values);
+        for (int row = 0; row < values.size(); row++) {
+            assertThat(column.getString(row)).isEqualTo(values.get(row));
+        }
+        assertThat(column.isNull(2)).isTrue();
+        assertThat(column.getLength(1)).isZero();
+        assertThat(column.getChars()).hasSize(16);
+    }
+}
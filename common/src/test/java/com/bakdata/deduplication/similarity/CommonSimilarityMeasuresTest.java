@@ -0,0 +1,244 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.apache.commons.text.similarity.JaroWinklerDistance;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class CommonSimilarityMeasuresTest {
+    private static final List<String> NAMES = List.of("", "a", "Meier", "Meyer", "Maier", "Mayr", "Müller", "Mueller",
+            "Schmidt", "Schmitt", "Schmid", "Hans-Peter", "Hanspeter", "Peter", "Jonathan", "Johnathan", "Nathan");
+
+    private static List<String> randomStrings(int count, int maxLength) {
+        final Random random = new Random(42);
+        final String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            final char[] chars = new char[random.nextInt(maxLength + 1)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(4));
+            }
+            strings[i] = new String(chars);
+        }
+        return List.of(strings);
+    }
+
+    private static List<String> randomTokens(Random random) {
+        final String[] tokens = new String[1 + random.nextInt(5)];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = NAMES.get(1 + random.nextInt(6));
+        }
+        return List.of(tokens);
+    }
+
+    @Test
+    void shouldComputeBandedLevenshteinDistance() {
+        final List<String> strings = randomStrings(200, 20);
+        final int[] previousRow = new int[21];
+        final int[] currentRow = new int[21];
+        for (int maxDistance = 0; maxDistance < 10; maxDistance++) {
+            final LevenshteinDistance expected = new LevenshteinDistance(maxDistance);
+            for (int i = 0; i < strings.size(); i += 2) {
+                final String left = strings.get(i);
+                final String right = strings.get(i + 1);
+                assertThat(CommonSimilarityMeasures.Levensthein.distance(left, right, maxDistance, previousRow, currentRow))
+                        .as("%s vs %s", left, right)
+                        .isEqualTo(expected.apply(left, right));
+            }
+        }
+    }
+
+    @Test
+    void shouldComputeLevenshteinSimilarity() {
+        final SimilarityMeasure<String> levenshtein = CommonSimilarityMeasures.levenshtein();
+        final SimilarityMeasure<String> cutoffLevenshtein = levenshtein.cutoff(.75f);
+        final SimilarityContext context = new SimilarityContext();
+        for (String left : NAMES) {
+            for (String right : NAMES) {
+                final int maxLen = Math.max(left.length(), right.length());
+                final float expected = 1f - (float) LevenshteinDistance.getDefaultInstance().apply(left, right) / maxLen;
+                if (maxLen == 0) {
+                    assertThat(levenshtein.getSimilarity(left, right, context)).isNaN();
+                    continue;
+                }
+                assertThat(levenshtein.getSimilarity(left, right, context)).isCloseTo(expected, offset(1e-6f));
+                assertThat(cutoffLevenshtein.getSimilarity(left, right, context))
+                        .isCloseTo(expected >= .75f ? expected : 0, offset(1e-6f));
+            }
+        }
+    }
+
+    @Test
+    void shouldComputeBitParallelLevenshteinDistance() {
+        final List<String> strings = randomStrings(400, 80);
+        for (int maxDistance = 0; maxDistance < 80; maxDistance += 7) {
+            final LevenshteinDistance expected = new LevenshteinDistance(maxDistance);
+            for (int i = 0; i < strings.size(); i += 2) {
+                final String left = strings.get(i);
+                final String right = strings.get(i + 1);
+                assertThat(CommonSimilarityMeasures.BitParallelLevenshtein.distance(left, right, maxDistance))
+                        .as("%s vs %s", left, right)
+                        .isEqualTo(expected.apply(left, right));
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchLevenshteinSimilarity() {
+        final SimilarityContext context = new SimilarityContext();
+        for (float threshold : new float[]{0, .5f, .75f}) {
+            final SimilarityMeasure<String> expected = CommonSimilarityMeasures.<String>levenshtein().cutoff(threshold);
+            final SimilarityMeasure<String> actual = CommonSimilarityMeasures.<String>bitParallelLevenshtein().cutoff(threshold);
+            for (String left : NAMES) {
+                for (String right : NAMES) {
+                    if (left.isEmpty() && right.isEmpty()) {
+                        continue;
+                    }
+                    assertThat(actual.getSimilarity(left, right, context))
+                            .isEqualTo(expected.getSimilarity(left, right, context));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchJaroWinklerDistance() {
+        final JaroWinklerDistance expected = new JaroWinklerDistance();
+        final SimilarityContext context = new SimilarityContext();
+        final List<String> strings = randomStrings(400, 12);
+        for (float threshold : new float[]{0, .7f, .9f}) {
+            final SimilarityMeasure<String> jaroWinkler = CommonSimilarityMeasures.<String>jaroWinkler().cutoff(threshold);
+            for (int i = 0; i < strings.size(); i += 2) {
+                final float similarity = expected.apply(strings.get(i), strings.get(i + 1)).floatValue();
+                assertThat(jaroWinkler.getSimilarity(strings.get(i), strings.get(i + 1), context))
+                        .isEqualTo(similarity < threshold ? 0 : similarity);
+            }
+            for (String left : NAMES) {
+                for (String right : NAMES) {
+                    final float similarity = expected.apply(left, right).floatValue();
+                    assertThat(jaroWinkler.getSimilarity(left, right, context))
+                            .as("%s vs %s", left, right)
+                            .isEqualTo(similarity < threshold ? 0 : similarity);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchCollectionSimilaritiesOnSketches() throws Exception {
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<List<CharSequence>> jaccard = CommonSimilarityMeasures.jaccard();
+        final SimilarityMeasure<List<CharSequence>> cosine = CommonSimilarityMeasures.cosine();
+        final SimilarityMeasure<TokenSketch> sketchJaccard = CommonSimilarityMeasures.sketchJaccard();
+        final SimilarityMeasure<TokenSketch> cutoffSketchJaccard = sketchJaccard.cutoff(.5f);
+        final SimilarityMeasure<TokenSketch> sketchCosine = CommonSimilarityMeasures.sketchCosine();
+        final SimilarityMeasure<TokenSketch> cutoffSketchCosine = sketchCosine.cutoff(.5f);
+        for (String left : NAMES) {
+            for (String right : NAMES) {
+                final List<CharSequence> leftBigrams = CommonSimilarityMeasures.<String>bigram().transform(left, context);
+                final List<CharSequence> rightBigrams = CommonSimilarityMeasures.<String>bigram().transform(right, context);
+                final TokenSketch leftSketch = TokenSketch.ofTokens(leftBigrams);
+                final TokenSketch rightSketch = CommonSimilarityMeasures.<String>ngramSketch(2).transform(right, context);
+                if (leftBigrams.isEmpty() || rightBigrams.isEmpty()) {
+                    continue;
+                }
+                final float expectedJaccard = jaccard.getSimilarity(leftBigrams, rightBigrams, context);
+                assertThat(sketchJaccard.getSimilarity(leftSketch, rightSketch, context))
+                        .isCloseTo(expectedJaccard, offset(1e-6f));
+                assertThat(cutoffSketchJaccard.getSimilarity(leftSketch, rightSketch, context))
+                        .isCloseTo(expectedJaccard < .5f ? 0 : expectedJaccard, offset(1e-6f));
+                final float expectedCosine = cosine.getSimilarity(leftBigrams, rightBigrams, context);
+                assertThat(sketchCosine.getSimilarity(leftSketch, rightSketch, context))
+                        .isCloseTo(expectedCosine, offset(1e-6f));
+                assertThat(cutoffSketchCosine.getSimilarity(leftSketch, rightSketch, context))
+                        .isCloseTo(expectedCosine < .5f ? 0 : expectedCosine, offset(1e-6f));
+            }
+        }
+    }
+
+    @Test
+    void shouldShortCircuitWeightedAverage() {
+        final SimilarityContext context = new SimilarityContext();
+        final CommonSimilarityMeasures.WeightedAggregation<String> average = CommonSimilarityMeasures.<String>weightedAverage()
+                .add(1, CommonSimilarityMeasures.equality())
+                .add(2, CommonSimilarityMeasures.levenshtein())
+                .add(3, CommonSimilarityMeasures.jaroWinkler())
+                .build();
+        // same weighted average without fast path
+        final CommonSimilarityMeasures.WeightedAggregation<String> expected = average.toBuilder()
+                .aggregator((weightedSims, weights) -> (float) (weightedSims.stream().mapToDouble(sim -> sim).sum()
+                        / weights.stream().mapToDouble(w -> w).sum()))
+                .build();
+        final SimilarityMeasure<String> cutoff = average.cutoff(.8f);
+        final SimilarityMeasure<String> scaled = average.scaleWithThreshold(.8f);
+        for (String left : NAMES) {
+            for (String right : NAMES) {
+                if (left.isEmpty() || right.isEmpty()) {
+                    continue;
+                }
+                final float similarity = expected.getSimilarity(left, right, context);
+                assertThat(average.getSimilarity(left, right, context)).isCloseTo(similarity, offset(1e-6f));
+                assertThat(cutoff.getSimilarity(left, right, context))
+                        .isCloseTo(similarity < .8f ? 0 : similarity, offset(1e-6f));
+                // scaling needs the exact similarity below the threshold, too
+                assertThat(scaled.getSimilarity(left, right, context))
+                        .isCloseTo(SimilarityMeasure.scaleWithThreshold(similarity, .8f), offset(1e-5f));
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchMongeElkanDefinition() {
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<String> pairMeasure = CommonSimilarityMeasures.jaroWinkler();
+        final Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            final List<String> left = randomTokens(random);
+            final List<String> right = randomTokens(random);
+            final float expected = (float) left.stream()
+                    .mapToDouble(leftToken -> right.stream()
+                            .mapToDouble(rightToken -> pairMeasure.getSimilarity(leftToken, rightToken, context))
+                            .max().orElse(0))
+                    .average().orElse(0);
+            for (float threshold : new float[]{0, .8f, .9f}) {
+                final SimilarityMeasure<List<String>> mongeElkan =
+                        CommonSimilarityMeasures.<String, List<String>>mongeElkan(pairMeasure).cutoff(threshold);
+                final SimilarityMeasure<TokenBag<String>> bagMongeElkan =
+                        CommonSimilarityMeasures.<String>bagMongeElkan(pairMeasure).cutoff(threshold);
+                final float expectedWithCutoff = expected < threshold - 1e-6f ? 0 : expected;
+                assertThat(mongeElkan.getSimilarity(left, right, context))
+                        .isCloseTo(expectedWithCutoff, offset(1e-5f));
+                assertThat(bagMongeElkan.getSimilarity(TokenBag.of(left), TokenBag.of(right), context))
+                        .isCloseTo(expectedWithCutoff, offset(1e-5f));
+            }
+        }
+    }
+}
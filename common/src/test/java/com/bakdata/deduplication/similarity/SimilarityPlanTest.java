@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.Value;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.bakdata.deduplication.similarity.CommonSimilarityMeasures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarityPlanTest {
+    private static final List<String> NAMES = List.of("Meier", "Meyer", "Maier", "Müller", "Mueller", "Schmidt",
+            "Schmitt", "Hans-Peter", "Hanspeter", "Peter", "");
+
+    private static List<Name> randomNames(int count) {
+        final Random random = new Random(7);
+        final List<Name> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add(new Name(randomName(random), randomName(random)));
+        }
+        return names;
+    }
+
+    private static String randomName(Random random) {
+        final int index = random.nextInt(NAMES.size() + 1);
+        return index == NAMES.size() ? null : NAMES.get(index);
+    }
+
+    @Test
+    void shouldEvaluateLikeInterpretedTree() {
+        final SimilarityTransformation<String, String> phonetic = colognePhonetic();
+        final SimilarityTransformation<String, String> failing = (value, context) -> {
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("empty");
+            }
+            return value.toLowerCase();
+        };
+        final SimilarityMeasure<Name> measure = CommonSimilarityMeasures.<Name>weightedAverage()
+                .add(2, Name::getFirstName, max(levenshtein().cutoff(.5f), jaroWinkler(), equality().of(phonetic)))
+                .add(2, Name::getLastName, min(equality().of(phonetic), levenshtein().of(failing)))
+                .add(1, Name::getLastName, levenshtein().of(failing).unknownIf(s -> s < .2f))
+                .build()
+                .scaleWithThreshold(.7f);
+        final SimilarityPlan<Name> plan = SimilarityPlan.compile(measure);
+
+        final List<Name> names = randomNames(100);
+        for (Name left : names) {
+            for (Name right : names) {
+                final SimilarityContext expectedContext = new SimilarityContext();
+                final SimilarityContext actualContext = new SimilarityContext();
+                // boxed, such that NaN equals NaN
+                assertThat(Float.valueOf(plan.getSimilarity(left, right, actualContext)))
+                        .as("%s vs %s", left, right)
+                        .isEqualTo(measure.getSimilarity(left, right, expectedContext));
+                assertThat(actualContext.getExceptions()).hasSameSizeAs(expectedContext.getExceptions());
+            }
+        }
+    }
+
+    @Test
+    void shouldEvaluateBatchesLikePairs() {
+        final SimilarityMeasure<Name> measure = CommonSimilarityMeasures.<Name>weightedAverage()
+                .add(2, Name::getFirstName, max(bitParallelLevenshtein().cutoff(.5f), jaroWinkler()))
+                .add(2, Name::getLastName, min(equality().of(colognePhonetic()), levenshtein()))
+                .add(1, Name::getLastName, jaroWinkler().unknownIf(s -> s < .2f))
+                .build()
+                .scaleWithThreshold(.7f);
+        final List<Name> names = randomNames(100);
+        for (SimilarityMeasure<Name> evaluated : List.of(measure, SimilarityPlan.compile(measure))) {
+            for (Name left : names) {
+                final SimilarityContext context = new SimilarityContext();
+                final float[] similarities = new float[names.size()];
+                evaluated.getSimilarities(left, names, similarities, context);
+                for (int i = 0; i < names.size(); i++) {
+                    assertThat(Float.valueOf(similarities[i]))
+                            .as("%s vs %s", left, names.get(i))
+                            .isEqualTo(measure.getSimilarity(left, names.get(i), context));
+                }
+            }
+        }
+    }
+
+    private static SimilarityMeasure<Name> createNestedMeasure(AtomicReference<SimilarityMeasure<Name>> self) {
+        // compares the last names by evaluating the measure itself on records that only consist of them
+        final SimilarityMeasure<Name> lastNames = (left, right, context) ->
+                left.getLastName() == null || right.getLastName() == null ? SimilarityMeasure.unknown() :
+                        self.get().getSimilarity(new Name(left.getLastName(), null), new Name(right.getLastName(), null),
+                                context);
+        return CommonSimilarityMeasures.<Name>weightedAverage()
+                .add(1, Name::getFirstName, levenshtein())
+                .add(1, lastNames)
+                .build();
+    }
+
+    @Test
+    void shouldEvaluateNestedPlans() {
+        final AtomicReference<SimilarityMeasure<Name>> tree = new AtomicReference<>();
+        tree.set(createNestedMeasure(tree));
+        final AtomicReference<SimilarityMeasure<Name>> plan = new AtomicReference<>();
+        plan.set(SimilarityPlan.compile(createNestedMeasure(plan)));
+
+        final List<Name> names = randomNames(50);
+        for (Name left : names) {
+            final float[] similarities = new float[names.size()];
+            plan.get().getSimilarities(left, names, similarities, new SimilarityContext());
+            for (int i = 0; i < names.size(); i++) {
+                final Float expected = tree.get().getSimilarity(left, names.get(i), new SimilarityContext());
+                assertThat(Float.valueOf(plan.get().getSimilarity(left, names.get(i), new SimilarityContext())))
+                        .as("%s vs %s", left, names.get(i))
+                        .isEqualTo(expected);
+                assertThat(Float.valueOf(similarities[i])).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void shouldShareTransformations() {
+        final SimilarityTransformation<String, String> phonetic = colognePhonetic();
+        final SimilarityMeasure<String> measure = max(equality().of(phonetic), levenshtein().of(phonetic),
+                jaroWinkler().of(beiderMorse()));
+        // the record itself, the cologne phonetic, and beider morse
+        assertThat(SimilarityPlan.compile(measure).getSlotCount()).isEqualTo(3);
+    }
+
+    @Value
+    private static class Name {
+        String firstName;
+        String lastName;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemporalSimilarityMeasuresTest {
+    private static List<LocalDate> randomDatePairs(int count) {
+        final Random random = new Random(42);
+        final long from = LocalDate.of(-100, 1, 1).toEpochDay();
+        final long to = LocalDate.of(10100, 1, 1).toEpochDay();
+        final List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final LocalDate date = LocalDate.ofEpochDay(from + (long) (random.nextDouble() * (to - from)));
+            dates.add(date);
+            switch (random.nextInt(4)) {
+                case 0:
+                    dates.add(date.plusDays(random.nextInt(80) - 40));
+                    break;
+                case 1:
+                    dates.add(date.withYear(date.getYear() + random.nextInt(21) - 10));
+                    break;
+                case 2:
+                    dates.add(date.getDayOfMonth() <= 12 ? date.withDayOfMonth(date.getMonthValue())
+                            .withMonth(date.getDayOfMonth()) : date);
+                    break;
+                default:
+                    dates.add(LocalDate.ofEpochDay(from + (long) (random.nextDouble() * (to - from))));
+            }
+        }
+        return dates;
+    }
+
+    @Test
+    void shouldMatchFormattedLevenshtein() {
+        final SimilarityContext context = new SimilarityContext();
+        final List<LocalDate> dates = randomDatePairs(5000);
+        for (float threshold : new float[]{0, .5f, .75f}) {
+            final SimilarityMeasure<String> expected = CommonSimilarityMeasures.<String>levenshtein().cutoff(threshold);
+            final SimilarityMeasure<LocalDate> actual =
+                    TemporalSimilarityMeasures.<LocalDate>isoLevenshtein().cutoff(threshold);
+            for (int i = 0; i < dates.size(); i += 2) {
+                final LocalDate left = dates.get(i);
+                final LocalDate right = dates.get(i + 1);
+                assertThat(actual.getSimilarity(left, right, context))
+                        .as("%s vs %s", left, right)
+                        .isEqualTo(expected.getSimilarity(DateTimeFormatter.ISO_LOCAL_DATE.format(left),
+                                DateTimeFormatter.ISO_LOCAL_DATE.format(right), context));
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchMaxDiff() {
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<LocalDate> expected = (left, right, c) ->
+                Math.max(0, 1 - (float) Math.abs(left.until(right, ChronoUnit.DAYS)) / 30);
+        final SimilarityMeasure<LocalDate> actual = TemporalSimilarityMeasures.maxDayDiff(30);
+        final List<LocalDate> dates = randomDatePairs(1000);
+        for (int i = 0; i < dates.size(); i += 2) {
+            assertThat(actual.getSimilarity(dates.get(i), dates.get(i + 1), context))
+                    .isEqualTo(expected.getSimilarity(dates.get(i), dates.get(i + 1), context));
+        }
+    }
+
+    @Test
+    void shouldDetectDayMonthTransposition() {
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<LocalDate> transposition = TemporalSimilarityMeasures.dayMonthTransposition(.8f);
+        assertThat(transposition.getSimilarity(LocalDate.of(1985, 3, 4), LocalDate.of(1985, 4, 3), context))
+                .isEqualTo(.8f);
+        assertThat(transposition.getSimilarity(LocalDate.of(1985, 3, 4), LocalDate.of(1985, 3, 4), context))
+                .isEqualTo(1);
+        assertThat(transposition.getSimilarity(LocalDate.of(1985, 3, 4), LocalDate.of(1986, 4, 3), context))
+                .isEqualTo(0);
+        assertThat(transposition.getSimilarity(LocalDate.of(1985, 3, 4), LocalDate.of(1985, 3, 5), context))
+                .isEqualTo(0);
+    }
+}
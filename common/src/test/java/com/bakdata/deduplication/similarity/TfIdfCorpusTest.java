@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class TfIdfCorpusTest {
+    private static TfIdfCorpus<String> createCorpus() {
+        final TfIdfCorpus<String> corpus = TfIdfCorpus.create();
+        for (int i = 0; i < 50; i++) {
+            corpus.add(List.of("hans", "mueller"));
+            corpus.add(List.of("peter", "mueller"));
+        }
+        corpus.add(List.of("hans", "oberholzer"));
+        corpus.add(List.of("peter", "oberholzer"));
+        return corpus;
+    }
+
+    @Test
+    void shouldWeighRareTokensHigher() {
+        final TfIdfCorpus<String> corpus = createCorpus();
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<List<String>> cosine = CommonSimilarityMeasures.tfIdfCosine(corpus);
+
+        assertThat(cosine.getSimilarity(List.of("hans", "mueller"), List.of("hans", "mueller"), context))
+                .isCloseTo(1, offset(1e-6f));
+        assertThat(cosine.getSimilarity(List.of("hans", "oberholzer"), List.of("peter", "oberholzer"), context))
+                .isGreaterThan(cosine.getSimilarity(List.of("hans", "mueller"), List.of("peter", "mueller"), context));
+        assertThat(cosine.getSimilarity(List.of("hans"), List.of(), context)).isNaN();
+    }
+
+    @Test
+    void shouldMatchSimilarTokens() {
+        final TfIdfCorpus<String> corpus = createCorpus();
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<List<String>> cosine = CommonSimilarityMeasures.tfIdfCosine(corpus);
+        final SimilarityMeasure<List<String>> exactSoftCosine =
+                CommonSimilarityMeasures.softTfIdf(corpus, CommonSimilarityMeasures.equality(), .5f);
+        final SimilarityMeasure<List<String>> softCosine =
+                CommonSimilarityMeasures.softTfIdf(corpus, CommonSimilarityMeasures.jaroWinkler(), .9f);
+
+        final List<String> left = List.of("hans", "oberholzer");
+        final List<String> right = List.of("hans", "oberholser");
+        assertThat(exactSoftCosine.getSimilarity(left, right, context))
+                .isCloseTo(cosine.getSimilarity(left, right, context), offset(1e-6f));
+        assertThat(softCosine.getSimilarity(left, right, context))
+                .isGreaterThan(cosine.getSimilarity(left, right, context));
+    }
+
+    @Test
+    void shouldUpdateDocumentFrequencies() {
+        final TfIdfCorpus<String> corpus = createCorpus();
+        assertThat(corpus.getNumDocuments()).isEqualTo(102);
+        assertThat(corpus.getDocumentFrequency("mueller")).isEqualTo(100);
+        corpus.remove(List.of("hans", "mueller"));
+        assertThat(corpus.getNumDocuments()).isEqualTo(101);
+        assertThat(corpus.getDocumentFrequency("mueller")).isEqualTo(99);
+        assertThat(corpus.getDocumentFrequency("unknown")).isZero();
+    }
+
+    @Test
+    void shouldDropTokensWithoutDocuments() {
+        final TfIdfCorpus<String> corpus = TfIdfCorpus.create();
+        corpus.add(List.of("hans", "mueller"));
+        corpus.add(List.of("hans", "oberholzer"));
+        assertThat(corpus.getNumTokens()).isEqualTo(3);
+
+        corpus.remove(List.of("hans", "oberholzer"));
+        assertThat(corpus.getNumTokens()).isEqualTo(2);
+        assertThat(corpus.getDocumentFrequency("oberholzer")).isZero();
+        corpus.remove(List.of("hans", "mueller"));
+        assertThat(corpus.getNumTokens()).isZero();
+        assertThat(corpus.getNumDocuments()).isZero();
+    }
+
+    @Test
+    void shouldAddIngestedRecords() {
+        final TfIdfCorpus<String> corpus = TfIdfCorpus.create();
+        final RecordPreparation<String> preparation = RecordPreparation.<String>builder()
+                .ingestionHook(corpus.ingestion(name -> name.isEmpty() ? null : List.of(name.split(" "))))
+                .build();
+
+        preparation.ingest("hans mueller");
+        preparation.ingest("peter mueller");
+        preparation.ingest("");
+        // fused values are only prepared
+        preparation.prepare("hans peter mueller");
+        assertThat(corpus.getNumDocuments()).isEqualTo(2);
+        assertThat(corpus.getDocumentFrequency("mueller")).isEqualTo(2);
+        assertThat(corpus.getDocumentFrequency("hans")).isEqualTo(1);
+    }
+}
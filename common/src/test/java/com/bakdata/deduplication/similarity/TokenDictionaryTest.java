@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class TokenDictionaryTest {
+    private static final List<List<String>> COMPANIES = List.of(
+            List.of("bakdata", "GmbH"),
+            List.of("bak", "data", "GmbH"),
+            List.of("Bakdata", "GmbH", "&", "Co", "KG"),
+            List.of("Müller", "Müller", "GmbH"),
+            List.of("Mueller", "GmbH"),
+            List.of("Schmidt", "AG"));
+
+    @Test
+    void shouldAssignStableIds() {
+        final TokenDictionary dictionary = new TokenDictionary();
+        final int id = dictionary.getId("GmbH");
+        assertThat(dictionary.getId("AG")).isNotEqualTo(id);
+        assertThat(dictionary.getId(new StringBuilder("GmbH"))).isEqualTo(id);
+        assertThat(dictionary.getToken(id)).isEqualTo("GmbH");
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMatchTokenMeasures() {
+        final TokenDictionary dictionary = new TokenDictionary();
+        final SimilarityContext context = new SimilarityContext();
+        final SimilarityMeasure<List<String>> jaccard = CommonSimilarityMeasures.jaccard();
+        final SimilarityMeasure<List<String>> mongeElkan =
+                CommonSimilarityMeasures.<String, List<String>>mongeElkan(CommonSimilarityMeasures.jaroWinkler());
+        final SimilarityMeasure<TokenSketch> idMongeElkan = dictionary.mongeElkan(CommonSimilarityMeasures.jaroWinkler());
+        for (int repetition = 0; repetition < 2; repetition++) {
+            for (List<String> left : COMPANIES) {
+                for (List<String> right : COMPANIES) {
+                    final TokenSketch leftSketch = dictionary.sketchOf(left);
+                    final TokenSketch rightSketch = dictionary.sketchOf(right);
+                    assertThat(CommonSimilarityMeasures.sketchJaccard().getSimilarity(leftSketch, rightSketch, context))
+                            .isCloseTo(jaccard.getSimilarity(left, right, context), offset(1e-6f));
+                    assertThat(idMongeElkan.getSimilarity(leftSketch, rightSketch, context))
+                            .isCloseTo(mongeElkan.getSimilarity(left, right, context), offset(1e-5f));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldNotCacheScoresOfFailedComparisons() {
+        final TokenDictionary dictionary = new TokenDictionary();
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityMeasure<String> failingMeasure = (left, right, context) -> {
+            invocations.incrementAndGet();
+            if (left.equals("data")) {
+                context.addException(new IllegalArgumentException(left));
+                return 0;
+            }
+            return left.equals(right) ? 1 : 0;
+        };
+        final SimilarityMeasure<TokenSketch> idMongeElkan = dictionary.mongeElkan(failingMeasure);
+        final TokenSketch data = dictionary.sketchOf(List.of("data"));
+        final TokenSketch gmbh = dictionary.sketchOf(List.of("GmbH"));
+
+        for (int repetition = 0; repetition < 2; repetition++) {
+            final SimilarityContext context = new SimilarityContext();
+            idMongeElkan.getSimilarity(data, data, context);
+            // the same token pair fails again instead of returning the cached fallback score
+            assertThat(context.getNumExceptions()).isEqualTo(1);
+            assertThat(idMongeElkan.getSimilarity(gmbh, gmbh, context)).isEqualTo(1);
+        }
+        // only the successful comparison is cached
+        assertThat(invocations).hasValue(3);
+    }
+}
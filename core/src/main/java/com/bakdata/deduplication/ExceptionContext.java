@@ -24,29 +24,70 @@
  */
 package com.bakdata.deduplication;
 
-import lombok.Getter;
-import lombok.Value;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.extern.java.Log;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.logging.Level;
 
-@Value
+/**
+ * Collects the exceptions that occur while processing a record or a pair, such that the processing can continue and
+ * all exceptions can be reported at the end.<br>
+ * The list of exceptions is only allocated when the first exception is added, and the context can be reused after
+ * {@link #clear()}.
+ */
 @Log
+@EqualsAndHashCode
+@ToString
 public class ExceptionContext {
-    @Getter
-    private final List<Exception> exceptions = new ArrayList<>();
+    private List<Exception> exceptions;
+
+    public List<Exception> getExceptions() {
+        return exceptions == null ? List.of() : Collections.unmodifiableList(exceptions);
+    }
+
+    public boolean hasExceptions() {
+        return exceptions != null && !exceptions.isEmpty();
+    }
+
+    public int getNumExceptions() {
+        return exceptions == null ? 0 : exceptions.size();
+    }
+
+    public void addException(Exception exception) {
+        log.log(Level.FINE, "Suppressing exception", exception);
+        if (exceptions == null) {
+            exceptions = new ArrayList<>();
+        }
+        exceptions.add(exception);
+    }
+
+    /**
+     * Removes all exceptions that have been added after the given number of exceptions.
+     */
+    public void truncateExceptions(int numExceptions) {
+        if (numExceptions < getNumExceptions()) {
+            exceptions.subList(numExceptions, exceptions.size()).clear();
+        }
+    }
+
+    public void clear() {
+        if (exceptions != null) {
+            exceptions.clear();
+        }
+    }
 
     @SuppressWarnings("unused")
     public <T> Optional<T> safeExecute(Callable<T> function) {
         try {
             return Optional.of(function.call());
         } catch (Exception e) {
-            log.log(Level.FINE, "Suppressing exception", e);
-            exceptions.add(e);
+            addException(e);
             return Optional.empty();
         }
     }
@@ -56,8 +97,7 @@ public class ExceptionContext {
         try {
             runnable.run();
         } catch (Exception e) {
-            log.log(Level.FINE, "Suppressing exception", e);
-            exceptions.add(e);
+            addException(e);
         }
     }
 }
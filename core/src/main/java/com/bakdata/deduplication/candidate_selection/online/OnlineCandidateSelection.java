@@ -30,4 +30,48 @@ import java.util.List;
 
 public interface OnlineCandidateSelection<T> {
     List<Candidate<T>> getCandidates(T newRecord);
+
+    /**
+     * Returns the candidates of the new record grouped by the blocks that produced them, e.g., by the passes of a
+     * multi-pass selection, and adds the new record to the index as {@link #getCandidates(Object)} does.<br>
+     * The default implementation returns all candidates as a single block.
+     */
+    default List<List<Candidate<T>>> getCandidateBlocks(T newRecord) {
+        return List.of(getCandidates(newRecord));
+    }
+
+    /**
+     * Adds the record to the index without computing its candidates.
+     */
+    default void add(T record) {
+        bulkLoad(List.of(record));
+    }
+
+    /**
+     * Removes a previously added record from the index, such that it is not returned as a candidate anymore. Records
+     * that are not part of the index are ignored.
+     *
+     * @throws UnsupportedOperationException if {@link #supportsRemoval()} is false
+     */
+    default void remove(T record) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns true if records can be {@link #remove(Object) removed} from the index.
+     */
+    default boolean supportsRemoval() {
+        return false;
+    }
+
+    /**
+     * Adds already deduplicated records to the index without computing their candidates.<br>
+     * The default implementation inserts one record at a time and discards the candidates; implementations should
+     * override it with a more efficient bulk insertion.
+     */
+    default void bulkLoad(Iterable<T> records) {
+        for (T record : records) {
+            getCandidates(record);
+        }
+    }
 }
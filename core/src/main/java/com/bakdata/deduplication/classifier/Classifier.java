@@ -26,6 +26,20 @@ package com.bakdata.deduplication.classifier;
 
 import com.bakdata.deduplication.candidate_selection.Candidate;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 public interface Classifier<T> {
     Classification classify(Candidate<T> candidate);
+
+    /**
+     * Classifies the new record against each of the old records.<br>
+     * The result is the same as classifying each {@link Candidate} on its own, but implementations may process the
+     * new record only once.
+     */
+    default List<Classification> classifyAll(T newRecord, List<T> oldRecords) {
+        return oldRecords.stream()
+                .map(oldRecord -> classify(new Candidate<>(newRecord, oldRecord)))
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -26,8 +26,13 @@ package com.bakdata.deduplication.clustering;
 
 import com.bakdata.deduplication.classifier.ClassifiedCandidate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public interface Clustering<C extends Comparable<C>, T> {
     List<Cluster<C, T>> cluster(List<ClassifiedCandidate<T>> classified);
@@ -35,4 +40,44 @@ public interface Clustering<C extends Comparable<C>, T> {
     default Function<Iterable<T>, C> getClusterIdGenerator() {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Returns the cluster, to which the given record has been assigned in previous invocations, if the clustering keeps
+     * track of its clusters.
+     */
+    default Optional<Cluster<C, T>> getCluster(T record) {
+        return Optional.empty();
+    }
+
+    /**
+     * Initializes the clustering with already deduplicated records.<br>
+     * All records with the same (non-null) cluster assignment form one cluster. Singleton clusters are skipped, as
+     * single records are also not part of any cluster during regular clustering.
+     */
+    default void bulkLoad(Iterable<T> records, Function<? super T, ?> clusterAssignment) {
+        final Map<Object, List<T>> assignedRecords = new LinkedHashMap<>();
+        for (T record : records) {
+            final Object assignment = clusterAssignment.apply(record);
+            if (assignment != null) {
+                assignedRecords.computeIfAbsent(assignment, key -> new ArrayList<>()).add(record);
+            }
+        }
+        final Function<Iterable<T>, C> clusterIdGenerator = getClusterIdGenerator();
+        final List<Cluster<C, T>> clusters = assignedRecords.values().stream()
+                .filter(elements -> elements.size() > 1)
+                .map(elements -> new Cluster<>(clusterIdGenerator.apply(elements), elements))
+                .collect(Collectors.toList());
+        loadClusters(clusters);
+    }
+
+    /**
+     * Adds the given clusters to the index of the clustering, such that subsequent invocations of {@link #cluster(List)}
+     * extend them.<br>
+     * Clusterings that do not keep an index, such as oracles, do not support loading clusters.
+     *
+     * @throws UnsupportedOperationException if the clustering cannot be initialized with clusters
+     */
+    default void loadClusters(List<Cluster<C, T>> clusters) {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.deduplication.online;
+
+import com.bakdata.deduplication.candidate_selection.Candidate;
+import com.bakdata.deduplication.candidate_selection.online.OnlineCandidateSelection;
+import com.bakdata.deduplication.clustering.Cluster;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the fused values that replace the members of their clusters in the candidate index.<br>
+ * Candidate selection and classification then only see one representative per cluster, while the clustering still
+ * works on the original members: each representative is translated back to a member of its cluster.
+ * <p>
+ * Only the first member of each represented cluster is tracked, such that the state grows with the number of clusters
+ * and not with the number of records. When the cluster receives a new representative, the tracked first members of
+ * all merged clusters identify the outdated representatives.
+ * </p>
+ */
+class FusedRepresentatives<T> {
+    private final Map<T, T> memberOfRepresentative = new IdentityHashMap<>();
+    private final Map<T, T> representativeOfMember = new IdentityHashMap<>();
+
+    T getMember(T record) {
+        final T member = memberOfRepresentative.get(record);
+        return member == null ? record : member;
+    }
+
+    Candidate<T> toMemberCandidate(Candidate<T> candidate) {
+        final T oldMember = getMember(candidate.getOldRecord());
+        return oldMember == candidate.getOldRecord() ? candidate : new Candidate<>(candidate.getNewRecord(), oldMember);
+    }
+
+    void replace(Cluster<?, T> cluster, T representative, OnlineCandidateSelection<T> candidateSelection) {
+        for (T member : cluster.getElements()) {
+            final T previousRepresentative = representativeOfMember.remove(member);
+            if (previousRepresentative != null) {
+                memberOfRepresentative.remove(previousRepresentative);
+                candidateSelection.remove(previousRepresentative);
+            }
+            // members are only indexed until their cluster receives its first representative; removing them again is
+            // a no-op
+            candidateSelection.remove(member);
+        }
+        final T member = cluster.get(0);
+        representativeOfMember.put(member, representative);
+        memberOfRepresentative.put(representative, member);
+        candidateSelection.add(representative);
+    }
+
+    int size() {
+        return memberOfRepresentative.size();
+    }
+}
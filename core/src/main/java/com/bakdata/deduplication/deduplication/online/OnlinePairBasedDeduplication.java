@@ -24,6 +24,7 @@
  */
 package com.bakdata.deduplication.deduplication.online;
 
+import com.bakdata.deduplication.candidate_selection.Candidate;
 import com.bakdata.deduplication.candidate_selection.online.OnlineCandidateSelection;
 import com.bakdata.deduplication.classifier.Classification;
 import com.bakdata.deduplication.classifier.ClassifiedCandidate;
@@ -34,13 +35,23 @@ import com.bakdata.deduplication.deduplication.HardFusionHandler;
 import com.bakdata.deduplication.duplicate_detection.HardPairHandler;
 import com.bakdata.deduplication.fusion.FusedValue;
 import com.bakdata.deduplication.fusion.Fusion;
+import com.bakdata.deduplication.similarity.RecordPreparation;
 import com.google.common.collect.MoreCollectors;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.Value;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Value
@@ -54,15 +65,41 @@ public class OnlinePairBasedDeduplication<T> implements OnlineDeduplication<T> {
     HardPairHandler<T> hardPairHandler = HardPairHandler.ignore();
     @Builder.Default
     HardFusionHandler<T> hardFusionHandler = HardFusionHandler.dontFuse();
+    @Builder.Default
+    RecordPreparation<T> recordPreparation = RecordPreparation.none();
+    /**
+     * If enabled, candidates that are already part of the same cluster are classified against at most
+     * {@link #maxClusterRepresentatives} of its members, and not at all anymore once one member has been classified as
+     * a duplicate with at least {@link #minClusterConfidence}.
+     */
+    @Builder.Default
+    boolean clusterPruning = false;
+    @Builder.Default
+    int maxClusterRepresentatives = 3;
+    @Builder.Default
+    float minClusterConfidence = .9f;
+    /**
+     * If enabled, the fused value of a cluster replaces its members in the candidate selection, such that new records
+     * are compared with one representative per entity instead of with all of its records. Requires a candidate
+     * selection that {@link OnlineCandidateSelection#supportsRemoval() supports removal}.
+     */
+    @Builder.Default
+    boolean fusedRepresentatives = false;
+    @Getter(AccessLevel.NONE)
+    FusedRepresentatives<T> representatives = new FusedRepresentatives<>();
 
     @Override
     public T deduplicate(T newRecord) {
-        var classified = candidateSelection.getCandidates(newRecord)
-                .stream()
-                .map(candidate -> new ClassifiedCandidate<>(candidate, classifier.classify(candidate)))
-                .collect(Collectors.toList());
+        if (fusedRepresentatives && !candidateSelection.supportsRemoval()) {
+            // fail before the new record is indexed and clustered
+            throw new IllegalStateException("Fused representatives require a candidate selection that supports removal");
+        }
+        recordPreparation.ingest(newRecord);
+        final List<Candidate<T>> candidates = candidateSelection.getCandidates(newRecord);
+        var classified = clusterPruning ? classifyPruned(candidates) : classify(newRecord, candidates);
 
         var handledPairs = classified.stream()
+                .map(cc -> fusedRepresentatives ? toMemberCandidate(cc) : cc)
                 .flatMap(cc -> cc.getClassification().getResult() == Classification.ClassificationResult.POSSIBLE_DUPLICATE ?
                         hardPairHandler.apply(cc).stream() :
                         Stream.of(cc))
@@ -75,9 +112,69 @@ public class OnlinePairBasedDeduplication<T> implements OnlineDeduplication<T> {
 
         Cluster<?, T> mainCluster = clusters.stream().filter(c -> c.contains(newRecord)).collect(MoreCollectors.onlyElement());
 
-        return Optional.of(fusion.fuse(mainCluster))
+        final Optional<T> fusedValue = Optional.of(fusion.fuse(mainCluster))
                 .flatMap(hardFusionHandler::handlePartiallyFusedValue)
-                .map(FusedValue::getValue)
-                .orElse(newRecord);
+                .map(FusedValue::getValue);
+        if (fusedRepresentatives) {
+            fusedValue.ifPresent(value -> {
+                recordPreparation.prepare(value);
+                representatives.replace(mainCluster, value, candidateSelection);
+            });
+        }
+        return fusedValue.orElse(newRecord);
+    }
+
+    private ClassifiedCandidate<T> toMemberCandidate(ClassifiedCandidate<T> classifiedCandidate) {
+        final Candidate<T> candidate = classifiedCandidate.getCandidate();
+        final Candidate<T> memberCandidate = representatives.toMemberCandidate(candidate);
+        return memberCandidate == candidate ? classifiedCandidate :
+                new ClassifiedCandidate<>(memberCandidate, classifiedCandidate.getClassification());
+    }
+
+    private List<ClassifiedCandidate<T>> classify(T newRecord, List<Candidate<T>> candidates) {
+        final List<T> oldRecords = candidates.stream().map(Candidate::getOldRecord).collect(Collectors.toList());
+        final List<Classification> classifications = classifier.classifyAll(newRecord, oldRecords);
+        return IntStream.range(0, candidates.size())
+                .mapToObj(i -> new ClassifiedCandidate<>(candidates.get(i), classifications.get(i)))
+                .collect(Collectors.toList());
+    }
+
+    private List<ClassifiedCandidate<T>> classifyPruned(List<Candidate<T>> candidates) {
+        final List<ClassifiedCandidate<T>> classified = new ArrayList<>();
+        final Map<Object, Integer> representativesPerCluster = new HashMap<>();
+        final Set<Object> confidentClusters = new HashSet<>();
+        for (Candidate<T> candidate : candidates) {
+            final Optional<? extends Cluster<?, T>> cluster = clustering.getCluster(representatives.getMember(candidate.getOldRecord()));
+            if (!cluster.isPresent()) {
+                classified.add(new ClassifiedCandidate<>(candidate, classifier.classify(candidate)));
+                continue;
+            }
+
+            final Object clusterId = cluster.get().getId();
+            if (confidentClusters.contains(clusterId) ||
+                    representativesPerCluster.getOrDefault(clusterId, 0) >= maxClusterRepresentatives) {
+                // the remaining members would only confirm what the clustering already knows
+                continue;
+            }
+            final Classification classification = classifier.classify(candidate);
+            classified.add(new ClassifiedCandidate<>(candidate, classification));
+            representativesPerCluster.merge(clusterId, 1, Integer::sum);
+            if (classification.getResult() == Classification.ClassificationResult.DUPLICATE &&
+                    classification.getConfidence() >= minClusterConfidence) {
+                confidentClusters.add(clusterId);
+            }
+        }
+        return classified;
+    }
+
+    /**
+     * Bootstraps the deduplication with already deduplicated records without classifying them.<br>
+     * The records are bulk loaded into the candidate selection and the clustering, where all records with the same
+     * cluster assignment form one cluster. Note that the records are iterated several times.
+     */
+    public void bulkLoad(Iterable<T> records, Function<? super T, ?> clusterAssignment) {
+        records.forEach(recordPreparation::ingest);
+        candidateSelection.bulkLoad(records);
+        clustering.bulkLoad(records, clusterAssignment);
     }
 }
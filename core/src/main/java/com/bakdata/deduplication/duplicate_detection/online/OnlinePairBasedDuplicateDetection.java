@@ -24,6 +24,7 @@
  */
 package com.bakdata.deduplication.duplicate_detection.online;
 
+import com.bakdata.deduplication.candidate_selection.Candidate;
 import com.bakdata.deduplication.candidate_selection.online.OnlineCandidateSelection;
 import com.bakdata.deduplication.classifier.Classification;
 import com.bakdata.deduplication.classifier.ClassifiedCandidate;
@@ -31,11 +32,14 @@ import com.bakdata.deduplication.classifier.Classifier;
 import com.bakdata.deduplication.clustering.Cluster;
 import com.bakdata.deduplication.clustering.Clustering;
 import com.bakdata.deduplication.duplicate_detection.HardPairHandler;
+import com.bakdata.deduplication.similarity.RecordPreparation;
 import lombok.Builder;
 import lombok.Value;
 
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Value
@@ -46,12 +50,17 @@ public class OnlinePairBasedDuplicateDetection<C extends Comparable<C>, T> imple
     Clustering<C, T> clustering;
     @Builder.Default
     HardPairHandler<T> hardPairHandler = HardPairHandler.ignore();
+    @Builder.Default
+    RecordPreparation<T> recordPreparation = RecordPreparation.none();
 
     @Override
     public List<Cluster<C, T>> deduplicate(T newRecord) {
-        var classified = candidateSelection.getCandidates(newRecord)
-                .stream()
-                .map(candidate -> new ClassifiedCandidate<>(candidate, classifier.classify(candidate)))
+        recordPreparation.ingest(newRecord);
+        final List<Candidate<T>> candidates = candidateSelection.getCandidates(newRecord);
+        final List<Classification> classifications = classifier.classifyAll(newRecord,
+                candidates.stream().map(Candidate::getOldRecord).collect(Collectors.toList()));
+        var classified = IntStream.range(0, candidates.size())
+                .mapToObj(i -> new ClassifiedCandidate<>(candidates.get(i), classifications.get(i)))
                 .collect(Collectors.toList());
 
         var handledPairs = classified.stream()
@@ -62,4 +71,15 @@ public class OnlinePairBasedDuplicateDetection<C extends Comparable<C>, T> imple
 
         return clustering.cluster(handledPairs);
     }
+
+    /**
+     * Seeds the candidate index and the clusters with records whose duplicates are already known.
+     *
+     * @see com.bakdata.deduplication.clustering.Clustering#bulkLoad(Iterable, Function)
+     */
+    public void bulkLoad(Iterable<T> records, Function<? super T, ?> clusterAssignment) {
+        records.forEach(recordPreparation::ingest);
+        candidateSelection.bulkLoad(records);
+        clustering.bulkLoad(records, clusterAssignment);
+    }
 }
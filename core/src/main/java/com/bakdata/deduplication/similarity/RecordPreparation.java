@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Precomputes derived features of a record as soon as it enters the deduplication, such as normalized strings,
+ * phonetic codes, or n-grams.<br>
+ * A feature is a {@link SimilarityTransformation} applied to a value of the record, e.g., the phonetic code of the last
+ * name. The results are stored in the {@link #featureCache} alongside the value. Similarity measures that use the same
+ * transformation instances on the same values read them from the cache instead of recomputing them for every pair,
+ * provided that the classifier uses the same cache.
+ * <p>
+ * By default, the features are retained as long as the values are referenced, e.g., by a record in the candidate
+ * index. Hence, the extractors should return values that are stored in the record instead of computing new values.
+ * </p>
+ * <p>
+ * Additionally, {@link #ingestionHooks} are notified of each record that is ingested, e.g., to maintain statistics
+ * such as document frequencies over all records. In contrast to the features, they are not invoked for fused values.
+ * </p>
+ *
+ * @param <T> the type of the record
+ */
+@Value
+@Builder
+public class RecordPreparation<T> {
+    @Singular
+    List<Feature<T, ?>> features;
+    @NonNull
+    @Builder.Default
+    TransformationCache featureCache = TransformationCache.weak();
+    @Singular
+    List<Consumer<? super T>> ingestionHooks;
+
+    public static <T> RecordPreparation<T> none() {
+        return RecordPreparation.<T>builder().build();
+    }
+
+    /**
+     * Notifies the {@link #ingestionHooks} of a new record and {@link #prepare(Object) prepares} it.
+     */
+    public void ingest(T record) {
+        for (Consumer<? super T> hook : ingestionHooks) {
+            hook.accept(record);
+        }
+        prepare(record);
+    }
+
+    public void prepare(T record) {
+        if (features.isEmpty()) {
+            return;
+        }
+        final SimilarityContext context = new SimilarityContext(featureCache);
+        for (Feature<T, ?> feature : features) {
+            feature.compute(record, context);
+        }
+        // failed features are not cached and thus surface again in the classification
+    }
+
+    @Value
+    public static class Feature<T, V> {
+        @NonNull
+        Function<T, ? extends V> extractor;
+        @NonNull
+        SimilarityTransformation<V, ?> transformation;
+
+        void compute(T record, SimilarityContext context) {
+            final V value = extractor.apply(record);
+            if (value != null) {
+                context.safeExecute(() -> context.transform(transformation, value));
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class RecordPreparationBuilder<T> {
+        public <V> RecordPreparationBuilder<T> feature(Function<T, ? extends V> extractor,
+                                                       SimilarityTransformation<V, ?> transformation) {
+            return feature(new Feature<>(extractor, transformation));
+        }
+    }
+}
@@ -33,4 +33,24 @@ public class SimilarityContext {
     @Delegate
     ExceptionContext exceptionContext = new ExceptionContext();
     float similarityForNull = Float.NaN;
+    TransformationCache transformationCache;
+
+    public SimilarityContext() {
+        this(null);
+    }
+
+    public SimilarityContext(TransformationCache transformationCache) {
+        this.transformationCache = transformationCache;
+    }
+
+    /**
+     * Applies the transformation to the value, reusing a previous result if a {@link TransformationCache} is set.
+     */
+    @SuppressWarnings("squid:S00112")
+    public <T, R> R transform(SimilarityTransformation<T, R> transformation, T value) throws Exception {
+        if (transformationCache == null) {
+            return transformation.transform(value, this);
+        }
+        return transformationCache.transform(transformation, value, this);
+    }
 }
@@ -26,6 +26,7 @@ package com.bakdata.deduplication.similarity;
 
 import lombok.Value;
 
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -47,12 +48,25 @@ public interface SimilarityMeasure<T> {
 
     float getSimilarity(T left, T right, SimilarityContext context);
 
+    /**
+     * Computes the similarities of one record to each of the given records and writes them into {@code similarities}.
+     * <br>
+     * The results are the same as calling {@link #getSimilarity(Object, Object, SimilarityContext)} for each pair, but
+     * implementations may transform or preprocess {@code left} only once.
+     */
+    default void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+        for (int i = 0; i < rights.size(); i++) {
+            similarities[i] = getSimilarity(left, rights.get(i), context);
+        }
+    }
+
     default <O> SimilarityMeasure<O> of(SimilarityTransformation<O, ? extends T> extractor) {
         return new SimilarityPath<>(extractor, this);
     }
 
     default <O> SimilarityMeasure<O> of(Function<O, ? extends T> extractor) {
-        return of((outer, context) -> extractor.apply(outer));
+        final SimilarityTransformation<O, T> accessor = (outer, context) -> extractor.apply(outer);
+        return new SimilarityPath<>(accessor, this, false);
     }
 
     default SimilarityMeasure<T> cutoff(float threshold) {
@@ -60,7 +74,7 @@ public interface SimilarityMeasure<T> {
     }
 
     default SimilarityMeasure<T> scaleWithThreshold(float min) {
-        return (left, right, context) -> scaleWithThreshold(getSimilarity(left, right, context), min);
+        return new ScaledSimilarityMeasure<>(this, min);
     }
 
     default SimilarityMeasure<T> signum() {
@@ -75,10 +89,7 @@ public interface SimilarityMeasure<T> {
     }
 
     default SimilarityMeasure<T> unknownIf(Predicate<Float> scorePredicate) {
-        return (left, right, context) -> {
-            final float similarity = getSimilarity(left, right, context);
-            return scorePredicate.test(similarity) ? unknown() : similarity;
-        };
+        return new UnknownIfSimilarityMeasure<>(this, scorePredicate);
     }
 
     @Value
@@ -95,6 +106,14 @@ public interface SimilarityMeasure<T> {
             return cutoff(inner.getSimilarity(left, right, context), threshold);
         }
 
+        @Override
+        public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+            inner.getSimilarities(left, rights, similarities, context);
+            for (int i = 0; i < rights.size(); i++) {
+                similarities[i] = cutoff(similarities[i], threshold);
+            }
+        }
+
         @Override
         public SimilarityMeasure<T> cutoff(float threshold) {
             if (threshold < this.threshold) {
@@ -103,4 +122,45 @@ public interface SimilarityMeasure<T> {
             return new CutoffSimiliarityMeasure<>(inner, threshold);
         }
     }
+
+    @Value
+    class ScaledSimilarityMeasure<T> implements SimilarityMeasure<T> {
+        SimilarityMeasure<T> inner;
+        float min;
+
+        @Override
+        public float getSimilarity(T left, T right, SimilarityContext context) {
+            return SimilarityMeasure.scaleWithThreshold(inner.getSimilarity(left, right, context), min);
+        }
+
+        @Override
+        public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+            inner.getSimilarities(left, rights, similarities, context);
+            for (int i = 0; i < rights.size(); i++) {
+                similarities[i] = SimilarityMeasure.scaleWithThreshold(similarities[i], min);
+            }
+        }
+    }
+
+    @Value
+    class UnknownIfSimilarityMeasure<T> implements SimilarityMeasure<T> {
+        SimilarityMeasure<T> inner;
+        Predicate<Float> scorePredicate;
+
+        @Override
+        public float getSimilarity(T left, T right, SimilarityContext context) {
+            final float similarity = inner.getSimilarity(left, right, context);
+            return scorePredicate.test(similarity) ? SimilarityMeasure.unknown() : similarity;
+        }
+
+        @Override
+        public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+            inner.getSimilarities(left, rights, similarities, context);
+            for (int i = 0; i < rights.size(); i++) {
+                if (scorePredicate.test(similarities[i])) {
+                    similarities[i] = SimilarityMeasure.unknown();
+                }
+            }
+        }
+    }
 }
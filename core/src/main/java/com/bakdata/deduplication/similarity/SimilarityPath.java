@@ -27,28 +27,112 @@ package com.bakdata.deduplication.similarity;
 
 import lombok.Value;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Value
 public class SimilarityPath<R, T> implements SimilarityMeasure<T> {
     private final SimilarityTransformation<T, ? extends R> extractor;
     private final SimilarityMeasure<R> measure;
+    /**
+     * Whether the extracted values may be memoized in the {@link SimilarityContext}. Plain accessors are cheaper to
+     * invoke again than to look up.
+     */
+    private final boolean memoized;
+
+    public SimilarityPath(SimilarityTransformation<T, ? extends R> extractor, SimilarityMeasure<R> measure) {
+        this(extractor, measure, true);
+    }
+
+    public SimilarityPath(SimilarityTransformation<T, ? extends R> extractor, SimilarityMeasure<R> measure, boolean memoized) {
+        this.extractor = extractor;
+        this.measure = measure;
+        this.memoized = memoized;
+    }
 
     public float getSimilarity(T left, T right, SimilarityContext context) {
-        return context.safeExecute(() -> {
-            final R leftElement = extractor.transform(left, context);
+        try {
+            final R leftElement = extract(left, context);
             if (leftElement == null) {
                 return context.getSimilarityForNull();
             }
-            final R rightElement = extractor.transform(right, context);
+            final R rightElement = extract(right, context);
             if (rightElement == null) {
                 return context.getSimilarityForNull();
             }
             return measure.getSimilarity(leftElement, rightElement, context);
-        }).orElse(context.getSimilarityForNull());
+        } catch (Exception e) {
+            context.addException(e);
+            return context.getSimilarityForNull();
+        }
+    }
+
+    /**
+     * Extracts the value of {@code left} only once and passes all non-null values of {@code rights} to the batch
+     * evaluation of the inner measure.
+     */
+    @Override
+    public void getSimilarities(T left, List<? extends T> rights, float[] similarities, SimilarityContext context) {
+        final R leftElement;
+        try {
+            leftElement = extract(left, context);
+        } catch (Exception e) {
+            // fails for each pair and records the exceptions like getSimilarity
+            SimilarityMeasure.super.getSimilarities(left, rights, similarities, context);
+            return;
+        }
+        if (leftElement == null) {
+            Arrays.fill(similarities, 0, rights.size(), context.getSimilarityForNull());
+            return;
+        }
+
+        final List<R> rightElements = new ArrayList<>(rights.size());
+        final int[] positions = new int[rights.size()];
+        for (int i = 0; i < rights.size(); i++) {
+            R rightElement = null;
+            try {
+                rightElement = extract(rights.get(i), context);
+            } catch (Exception e) {
+                context.addException(e);
+            }
+            if (rightElement == null) {
+                similarities[i] = context.getSimilarityForNull();
+            } else {
+                positions[rightElements.size()] = i;
+                rightElements.add(rightElement);
+            }
+        }
+
+        final float[] elementSimilarities = new float[rightElements.size()];
+        final int numExceptions = context.getNumExceptions();
+        try {
+            measure.getSimilarities(leftElement, rightElements, elementSimilarities, context);
+        } catch (Exception e) {
+            // the exception cannot be attributed to a single pair, so the pairs are evaluated one by one
+            context.truncateExceptions(numExceptions);
+            for (int i = 0; i < rightElements.size(); i++) {
+                try {
+                    elementSimilarities[i] = measure.getSimilarity(leftElement, rightElements.get(i), context);
+                } catch (Exception pairException) {
+                    context.addException(pairException);
+                    elementSimilarities[i] = context.getSimilarityForNull();
+                }
+            }
+        }
+        for (int i = 0; i < elementSimilarities.length; i++) {
+            similarities[positions[i]] = elementSimilarities[i];
+        }
+    }
+
+    @SuppressWarnings("squid:S00112")
+    private R extract(T record, SimilarityContext context) throws Exception {
+        return memoized ? context.transform(extractor, record) : extractor.transform(record, context);
     }
 
     @Override
     public SimilarityMeasure<T> cutoff(float threshold) {
-        return new SimilarityPath<>(extractor, measure.cutoff(threshold));
+        return new SimilarityPath<>(extractor, measure.cutoff(threshold), memoized);
     }
 
 
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes the results of {@link SimilarityTransformation}s, such that each transformation is applied only once per
+ * value while the value is cached.<br>
+ * Values are compared by identity. Hence, a record that is compared with many other records is transformed only once.
+ * Transformations are also distinguished by identity, so the same transformation instance has to be used in all
+ * similarity measures that should share results.
+ */
+public class TransformationCache {
+    private static final Object NULL_RESULT = new Object();
+    private final Cache<Object, Map<SimilarityTransformation<?, ?>, Object>> results;
+
+    private TransformationCache(Cache<Object, Map<SimilarityTransformation<?, ?>, Object>> results) {
+        this.results = results;
+    }
+
+    /**
+     * Creates a cache that retains the transformation results of at most the given number of values.
+     */
+    public static TransformationCache bounded(long maxValues) {
+        return new TransformationCache(CacheBuilder.newBuilder().weakKeys().maximumSize(maxValues).build());
+    }
+
+    /**
+     * Creates a cache that retains the transformation results of a value as long as the value itself is referenced.
+     */
+    public static TransformationCache weak() {
+        return new TransformationCache(CacheBuilder.newBuilder().weakKeys().build());
+    }
+
+    @SuppressWarnings({"unchecked", "squid:S00112"})
+    public <T, R> R transform(SimilarityTransformation<T, R> transformation, T value, SimilarityContext context) throws Exception {
+        if (value == null) {
+            return transformation.transform(null, context);
+        }
+        final Map<SimilarityTransformation<?, ?>, Object> valueResults =
+                results.asMap().computeIfAbsent(value, v -> new ConcurrentHashMap<>());
+        Object result = valueResults.get(transformation);
+        if (result == null) {
+            final R transformed = transformation.transform(value, context);
+            result = transformed == null ? NULL_RESULT : transformed;
+            valueResults.put(transformation, result);
+        }
+        return result == NULL_RESULT ? null : (R) result;
+    }
+
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+}
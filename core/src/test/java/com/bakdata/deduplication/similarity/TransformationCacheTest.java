@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018 bakdata GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.bakdata.deduplication.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TransformationCacheTest {
+    private static SimilarityTransformation<String, String> counting(AtomicInteger invocations) {
+        return (value, context) -> {
+            invocations.incrementAndGet();
+            return value == null ? null : value.toUpperCase();
+        };
+    }
+
+    @Test
+    void shouldTransformOncePerValue() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> transformation = counting(invocations);
+        final SimilarityContext context = new SimilarityContext(TransformationCache.weak());
+
+        final String value = "smith";
+        final String result = context.transform(transformation, value);
+        assertThat(result).isEqualTo("SMITH");
+        assertThat(context.transform(transformation, value)).isSameAs(result);
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void shouldDistinguishValuesAndTransformationsByIdentity() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> transformation = counting(invocations);
+        final SimilarityContext context = new SimilarityContext(TransformationCache.weak());
+
+        context.transform(transformation, new String("smith"));
+        context.transform(transformation, new String("smith"));
+        assertThat(invocations).hasValue(2);
+
+        final String value = "smith";
+        context.transform(transformation, value);
+        context.transform(counting(invocations), value);
+        assertThat(invocations).hasValue(4);
+    }
+
+    @Test
+    void shouldCacheNullResults() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> transformation = (value, context) -> {
+            invocations.incrementAndGet();
+            return null;
+        };
+        final SimilarityContext context = new SimilarityContext(TransformationCache.weak());
+
+        final String value = "smith";
+        assertThat(context.transform(transformation, value)).isNull();
+        assertThat(context.transform(transformation, value)).isNull();
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void shouldNotCacheNullValuesAndFailures() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> failing = (value, context) -> {
+            invocations.incrementAndGet();
+            throw new IllegalArgumentException(value);
+        };
+        final SimilarityContext context = new SimilarityContext(TransformationCache.weak());
+
+        final String value = "smith";
+        for (int i = 0; i < 2; i++) {
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> context.transform(failing, value));
+        }
+        assertThat(invocations).hasValue(2);
+
+        final SimilarityTransformation<String, String> transformation = counting(invocations);
+        context.transform(transformation, null);
+        context.transform(transformation, null);
+        assertThat(invocations).hasValue(4);
+    }
+
+    @Test
+    void shouldEvictValuesOfBoundedCache() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> transformation = counting(invocations);
+        final TransformationCache cache = TransformationCache.bounded(1);
+        final SimilarityContext context = new SimilarityContext(cache);
+
+        final String smith = "smith";
+        final String miller = "miller";
+        context.transform(transformation, smith);
+        context.transform(transformation, miller);
+        context.transform(transformation, miller);
+        assertThat(invocations).hasValue(2);
+        context.transform(transformation, smith);
+        assertThat(invocations).hasValue(3);
+
+        cache.invalidateAll();
+        context.transform(transformation, smith);
+        assertThat(invocations).hasValue(4);
+    }
+
+    @Test
+    void shouldTransformWithoutCache() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        final SimilarityTransformation<String, String> transformation = counting(invocations);
+        final SimilarityContext context = new SimilarityContext();
+
+        final String value = "smith";
+        context.transform(transformation, value);
+        context.transform(transformation, value);
+        assertThat(invocations).hasValue(2);
+    }
+}
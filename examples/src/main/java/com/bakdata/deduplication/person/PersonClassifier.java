@@ -27,13 +27,15 @@ package com.bakdata.deduplication.person;
 import com.bakdata.deduplication.classifier.Classifier;
 import com.bakdata.deduplication.classifier.RuleBasedClassifier;
 import com.bakdata.deduplication.similarity.CommonSimilarityMeasures;
+import com.bakdata.deduplication.similarity.SimilarityPlan;
 import lombok.Value;
 import lombok.experimental.Delegate;
 
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 
 import static com.bakdata.deduplication.similarity.CommonSimilarityMeasures.*;
+import static com.bakdata.deduplication.similarity.TemporalSimilarityMeasures.isoLevenshtein;
+import static com.bakdata.deduplication.similarity.TemporalSimilarityMeasures.maxDayDiff;
 
 @Value
 public class PersonClassifier implements Classifier<Person> {
@@ -41,12 +43,12 @@ public class PersonClassifier implements Classifier<Person> {
 
     @Delegate
     Classifier<Person> classifier = RuleBasedClassifier.<Person>builder()
-            .positiveRule("Basic comparison", CommonSimilarityMeasures.<Person>weightedAverage()
+            .positiveRule("Basic comparison", SimilarityPlan.compile(CommonSimilarityMeasures.<Person>weightedAverage()
                     .add(2, Person::getFirstName, max(levenshtein().cutoff(.5f), jaroWinkler()))
                     .add(2, Person::getLastName, max(equality().of(colognePhonetic()), levenshtein().cutoff(.5f), jaroWinkler()))
                     .add(1, Person::getGender, equality())
-                    .add(2, Person::getBirthDate, max(levenshtein().of(ISO_FORMAT::format), maxDiff(2, ChronoUnit.DAYS)))
+                    .add(2, Person::getBirthDate, max(isoLevenshtein(), maxDayDiff(2)))
                     .build()
-                    .scaleWithThreshold(.9f))
+                    .scaleWithThreshold(.9f)))
             .build();
 }